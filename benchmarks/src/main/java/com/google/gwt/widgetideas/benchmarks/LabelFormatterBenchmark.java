@@ -0,0 +1,67 @@
+package com.google.gwt.widgetideas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gwt.widgetideas.client.SliderBar;
+import com.google.gwt.widgetideas.client.SliderModel;
+
+/**
+ * Benchmarks the default label formatter over the labels of a slider, as
+ * formatted on every label redraw.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LabelFormatterBenchmark {
+  /**
+   * A formatter exposing the protected formatting method.
+   */
+  private static class ExposedLabelFormatter extends SliderBar.LabelFormatter {
+    public String format(double value) {
+      return formatLabel(null, value);
+    }
+  }
+
+  /**
+   * The formatter under test.
+   */
+  private ExposedLabelFormatter formatter;
+
+  /**
+   * The values displayed by the labels.
+   */
+  private double[] labelValues;
+
+  @Setup
+  public void setUp() {
+    formatter = new ExposedLabelFormatter();
+    SliderModel model = new SliderModel(-50.0, 150.0);
+    model.setNumLabels(10);
+    labelValues = new double[model.getNumLabels() + 1];
+    for (int i = 0; i < labelValues.length; i++) {
+      labelValues[i] = model.getLabelValue(i);
+    }
+  }
+
+  @Benchmark
+  public void formatLabels(Blackhole blackhole) {
+    for (int i = 0; i < labelValues.length; i++) {
+      blackhole.consume(formatter.format(labelValues[i]));
+    }
+  }
+}
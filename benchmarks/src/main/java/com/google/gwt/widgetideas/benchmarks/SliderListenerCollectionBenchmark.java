@@ -0,0 +1,102 @@
+package com.google.gwt.widgetideas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gwt.widgetideas.client.SliderBar;
+import com.google.gwt.widgetideas.client.SliderListener;
+import com.google.gwt.widgetideas.client.SliderListenerCollection;
+import com.google.gwt.widgetideas.client.ValueChangeFilter;
+
+/**
+ * Benchmarks the dispatch of value change events to slider listeners, with
+ * and without value change filters. The events are fired with a null slider,
+ * since creating a slider bar requires a browser.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SliderListenerCollectionBenchmark {
+  /**
+   * A listener handing the events to a blackhole.
+   */
+  private static class ConsumingListener implements SliderListener {
+    private final Blackhole blackhole;
+
+    public ConsumingListener(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    public void onStartSliding(SliderBar slider) {
+      blackhole.consume(slider);
+    }
+
+    public void onStopSliding(SliderBar slider) {
+      blackhole.consume(slider);
+    }
+
+    public void onValueChanged(SliderBar slider, double curValue) {
+      blackhole.consume(curValue);
+    }
+  }
+
+  /**
+   * The collection of filtered listeners, sliding.
+   */
+  private SliderListenerCollection filteredListeners;
+
+  /**
+   * The collection of plain listeners.
+   */
+  private SliderListenerCollection listeners;
+
+  /**
+   * The number of listeners in each collection.
+   */
+  @Param({"1", "10", "100"})
+  private int numListeners;
+
+  /**
+   * The next value to fire.
+   */
+  private double value;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    listeners = new SliderListenerCollection();
+    filteredListeners = new SliderListenerCollection();
+    ValueChangeFilter filter = new ValueChangeFilter(1.0, 0, false);
+    for (int i = 0; i < numListeners; i++) {
+      listeners.add(new ConsumingListener(blackhole));
+      filteredListeners.add(new ConsumingListener(blackhole), filter);
+    }
+    filteredListeners.fireStartSliding(null);
+  }
+
+  @Benchmark
+  public void fireFilteredValueChanged() {
+    value += 0.25;
+    filteredListeners.fireValueChanged(null, value);
+  }
+
+  @Benchmark
+  public void fireValueChanged() {
+    value += 0.25;
+    listeners.fireValueChanged(null, value);
+  }
+}
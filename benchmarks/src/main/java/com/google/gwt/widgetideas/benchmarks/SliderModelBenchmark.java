@@ -0,0 +1,120 @@
+package com.google.gwt.widgetideas.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gwt.widgetideas.client.SliderModel;
+
+/**
+ * Benchmarks the slider math run on every pointer event: quantizing a value to
+ * the step size, computing the knob position and laying out labels and ticks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SliderModelBenchmark {
+  /**
+   * The number of precomputed pointer positions, a power of two.
+   */
+  private static final int NUM_POSITIONS = 1024;
+
+  /**
+   * The length of the line in pixels.
+   */
+  private static final int LINE_LENGTH = 300;
+
+  /**
+   * The offset of the line in pixels.
+   */
+  private static final int LINE_OFFSET = 5;
+
+  /**
+   * The length of the knob, labels and ticks in pixels.
+   */
+  private static final int MARK_LENGTH = 11;
+
+  /**
+   * The model under test.
+   */
+  private SliderModel model;
+
+  /**
+   * The index of the next pointer position.
+   */
+  private int next;
+
+  /**
+   * Pointer positions, as percentages of the line.
+   */
+  private double[] percents;
+
+  @Setup
+  public void setUp() {
+    model = new SliderModel(0.0, 100.0);
+    model.setStepSize(0.1);
+    model.setNumLabels(10);
+    model.setNumTicks(20);
+
+    Random random = new Random(42);
+    percents = new double[NUM_POSITIONS];
+    for (int i = 0; i < NUM_POSITIONS; i++) {
+      percents[i] = random.nextDouble();
+    }
+  }
+
+  @Benchmark
+  public int knobOffset() {
+    return model.getKnobOffset(LINE_OFFSET, LINE_LENGTH, MARK_LENGTH);
+  }
+
+  @Benchmark
+  public double knobPercent() {
+    return model.getKnobPercent();
+  }
+
+  @Benchmark
+  public void labelOffsets(Blackhole blackhole) {
+    int numLabels = model.getNumLabels();
+    for (int i = 0; i <= numLabels; i++) {
+      blackhole.consume(model.getLabelOffset(i, LINE_OFFSET, LINE_LENGTH,
+          MARK_LENGTH));
+    }
+  }
+
+  @Benchmark
+  public double setCurrentValue() {
+    double percent = percents[next++ & (NUM_POSITIONS - 1)];
+    model.setCurrentValue(model.getValueAt(percent), false);
+    return model.getCurrentValue();
+  }
+
+  @Benchmark
+  public long shiftSteps() {
+    model.shiftSteps((next++ & 1) == 0 ? 1 : -1, false);
+    return model.getStepIndex();
+  }
+
+  @Benchmark
+  public void tickOffsets(Blackhole blackhole) {
+    int numTicks = model.getNumTicks();
+    for (int i = 0; i <= numTicks; i++) {
+      blackhole.consume(model.getTickOffset(i, LINE_OFFSET, LINE_LENGTH,
+          MARK_LENGTH));
+    }
+  }
+}
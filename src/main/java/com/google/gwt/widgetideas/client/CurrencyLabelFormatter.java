@@ -0,0 +1,43 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.i18n.client.NumberFormat;
+
+/**
+ * A label formatter that displays values in the currency format of the
+ * current locale.
+ */
+public class CurrencyLabelFormatter extends MemoizingLabelFormatter {
+  /**
+   * The format used to format values.
+   */
+  private final NumberFormat format;
+
+  /**
+   * Create a formatter for the default currency of the current locale.
+   */
+  public CurrencyLabelFormatter() {
+    this(NumberFormat.getCurrencyFormat());
+  }
+
+  /**
+   * Create a formatter for a currency.
+   * 
+   * @param currencyCode the ISO 4217 code of the currency
+   */
+  public CurrencyLabelFormatter(String currencyCode) {
+    this(NumberFormat.getCurrencyFormat(currencyCode));
+  }
+
+  /**
+   * Create a formatter.
+   * 
+   * @param format the currency format used to format values
+   */
+  public CurrencyLabelFormatter(NumberFormat format) {
+    this.format = format;
+  }
+
+  protected String format(double value) {
+    return format.format(value);
+  }
+}
@@ -0,0 +1,49 @@
+package com.google.gwt.widgetideas.client;
+
+import java.util.Date;
+
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.i18n.client.DateTimeFormat.PredefinedFormat;
+
+/**
+ * A label formatter that displays values, in milliseconds since the epoch, as
+ * dates or times in a format of the current locale.
+ */
+public class DateTimeLabelFormatter extends MemoizingLabelFormatter {
+  /**
+   * The format used to format values.
+   */
+  private final DateTimeFormat format;
+
+  /**
+   * Create a formatter.
+   * 
+   * @param predefinedFormat the predefined format, such as
+   *          {@link PredefinedFormat#TIME_SHORT}
+   */
+  public DateTimeLabelFormatter(PredefinedFormat predefinedFormat) {
+    this(DateTimeFormat.getFormat(predefinedFormat));
+  }
+
+  /**
+   * Create a formatter.
+   * 
+   * @param pattern the {@link DateTimeFormat} pattern
+   */
+  public DateTimeLabelFormatter(String pattern) {
+    this(DateTimeFormat.getFormat(pattern));
+  }
+
+  /**
+   * Create a formatter.
+   * 
+   * @param format the format used to format values
+   */
+  public DateTimeLabelFormatter(DateTimeFormat format) {
+    this.format = format;
+  }
+
+  protected String format(double value) {
+    return format.format(new Date((long) value));
+  }
+}
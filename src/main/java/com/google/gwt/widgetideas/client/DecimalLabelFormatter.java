@@ -0,0 +1,62 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.i18n.client.NumberFormat;
+
+/**
+ * A label formatter that displays values in the decimal format of the current
+ * locale, with a fixed number of decimals or with a custom pattern.
+ */
+public class DecimalLabelFormatter extends MemoizingLabelFormatter {
+  /**
+   * Build a decimal pattern with grouping and a fixed number of decimals.
+   * 
+   * @param decimals the number of decimals
+   * @return the pattern
+   */
+  private static String getPattern(int decimals) {
+    StringBuffer pattern = new StringBuffer("#,##0");
+    if (decimals > 0) {
+      pattern.append('.');
+      for (int i = 0; i < decimals; i++) {
+        pattern.append('0');
+      }
+    }
+    return pattern.toString();
+  }
+
+  /**
+   * The format used to format values.
+   */
+  private final NumberFormat format;
+
+  /**
+   * Create a formatter.
+   * 
+   * @param decimals the number of decimals to display
+   */
+  public DecimalLabelFormatter(int decimals) {
+    this(getPattern(decimals));
+  }
+
+  /**
+   * Create a formatter.
+   * 
+   * @param pattern the {@link NumberFormat} pattern
+   */
+  public DecimalLabelFormatter(String pattern) {
+    this(NumberFormat.getFormat(pattern));
+  }
+
+  /**
+   * Create a formatter.
+   * 
+   * @param format the format used to format values
+   */
+  public DecimalLabelFormatter(NumberFormat format) {
+    this.format = format;
+  }
+
+  protected String format(double value) {
+    return format.format(value);
+  }
+}
@@ -0,0 +1,141 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.widgetideas.client.impl.DomInstrumentationImpl;
+
+/**
+ * Counts the DOM operations performed by a slider bar or by the
+ * {@link ResizableWidgetCollection}: the integer properties read, which may
+ * force a layout, the style attributes written, the elements created, the
+ * template clones creating them, the events dispatched to listeners and the
+ * redraws.
+ * 
+ * Counting is disabled by default, in which case no counters are created. To
+ * enable it, add the following to the module file:
+ * 
+ * <pre>
+ * &lt;set-property name="slider.instrumentation" value="enabled"/&gt;
+ * </pre>
+ */
+public class DomCounters {
+  /**
+   * The implementation deciding whether counting is enabled.
+   */
+  private static DomInstrumentationImpl impl = (DomInstrumentationImpl) GWT.create(DomInstrumentationImpl.class);
+
+  /**
+   * Check whether DOM operations are counted.
+   * 
+   * @return true if DOM operations are counted
+   */
+  public static boolean isEnabled() {
+    return impl.isEnabled();
+  }
+
+  /**
+   * The number of elements created.
+   */
+  int elementsCreated;
+
+  /**
+   * The number of events dispatched to listeners.
+   */
+  int listenerDispatches;
+
+  /**
+   * The number of integer properties read.
+   */
+  int propertyReads;
+
+  /**
+   * The number of redraws.
+   */
+  int redraws;
+
+  /**
+   * The number of style attributes written.
+   */
+  int styleWrites;
+
+  /**
+   * The number of template clones.
+   */
+  int templateClones;
+
+  /**
+   * Get the number of elements created.
+   * 
+   * @return the number of elements created
+   */
+  public int getElementsCreated() {
+    return elementsCreated;
+  }
+
+  /**
+   * Get the number of events dispatched to listeners, counting one dispatch
+   * per listener receiving an event.
+   * 
+   * @return the number of listener dispatches
+   */
+  public int getListenerDispatches() {
+    return listenerDispatches;
+  }
+
+  /**
+   * Get the number of integer properties read, such as offsetWidth or
+   * clientHeight.
+   * 
+   * @return the number of property reads
+   */
+  public int getPropertyReads() {
+    return propertyReads;
+  }
+
+  /**
+   * Get the number of redraws.
+   * 
+   * @return the number of redraws
+   */
+  public int getRedraws() {
+    return redraws;
+  }
+
+  /**
+   * Get the number of style attributes written.
+   * 
+   * @return the number of style writes
+   */
+  public int getStyleWrites() {
+    return styleWrites;
+  }
+
+  /**
+   * Get the number of clones of the template elements shared by slider bars
+   * with the same style base name. Each clone may create several elements,
+   * which are included in {@link #getElementsCreated()}.
+   * 
+   * @return the number of template clones
+   */
+  public int getTemplateClones() {
+    return templateClones;
+  }
+
+  /**
+   * Reset all the counts to zero.
+   */
+  public void reset() {
+    elementsCreated = 0;
+    listenerDispatches = 0;
+    propertyReads = 0;
+    redraws = 0;
+    styleWrites = 0;
+    templateClones = 0;
+  }
+
+  public String toString() {
+    return "propertyReads=" + propertyReads + ", styleWrites=" + styleWrites
+        + ", elementsCreated=" + elementsCreated + ", templateClones="
+        + templateClones + ", listenerDispatches=" + listenerDispatches
+        + ", redraws=" + redraws;
+  }
+}
@@ -0,0 +1,168 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.user.client.ui.AbstractImagePrototype;
+
+/**
+ * A {@link HSliderBar} that paints its line, ticks and labels onto a single
+ * canvas instead of creating an element for each tick and label, so that fine
+ * grained scales stay cheap to redraw. The knob, the events and the CSS style
+ * names are the same as those of {@link HSliderBar}, and labels are produced
+ * by the same {@link SliderBar.LabelFormatter}, but are painted as plain text.
+ * 
+ * In browsers without canvas support, this slider bar renders like a
+ * {@link HSliderBar}.
+ */
+public class HCanvasSliderBar extends HSliderBar {
+  /**
+   * A bit indicating whether the canvas needs to be painted.
+   */
+  private boolean canvasDirty = false;
+
+  /**
+   * The renderer painting the canvas, or null if canvas rendering is not
+   * supported.
+   */
+  private SliderCanvasRenderer renderer;
+
+  /**
+   * Create a slider bar.
+   * 
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   */
+  public HCanvasSliderBar(double minValue, double maxValue) {
+    this(minValue, maxValue, null);
+  }
+
+  /**
+   * Create a slider bar.
+   * 
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   * @param labelFormatter the label formatter
+   */
+  public HCanvasSliderBar(double minValue, double maxValue,
+      LabelFormatter labelFormatter) {
+    this(minValue, maxValue, labelFormatter, null);
+  }
+
+  /**
+   * Create a slider bar.
+   * 
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   * @param labelFormatter the label formatter
+   * @param images the images to use for the slider
+   */
+  public HCanvasSliderBar(double minValue, double maxValue,
+      LabelFormatter labelFormatter, AbstractImagePrototype[] images) {
+    this(minValue, maxValue, labelFormatter, images, "gwt-HSliderBar");
+  }
+
+  /**
+   * Create a slider bar.
+   * 
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   * @param labelFormatter the label formatter
+   * @param images the images to use for the slider
+   * @param styleBaseName the base name from which CSS style
+   * names for the slider are derived
+   */
+  public HCanvasSliderBar(double minValue, double maxValue,
+      LabelFormatter labelFormatter, AbstractImagePrototype[] images, String styleBaseName) {
+    this(new SliderModel(minValue, maxValue), labelFormatter, images,
+        styleBaseName);
+  }
+
+  /**
+   * Create a slider bar that displays a model, which may be shared with other
+   * slider bars.
+   * 
+   * @param model the model holding the range, step size and current value
+   * @param labelFormatter the label formatter
+   * @param images the images to use for the slider
+   * @param styleBaseName the base name from which CSS style
+   * names for the slider are derived
+   */
+  public HCanvasSliderBar(SliderModel model, LabelFormatter labelFormatter,
+      AbstractImagePrototype[] images, String styleBaseName) {
+    super(model, labelFormatter, images, styleBaseName);
+  }
+
+  /**
+   * Create the line and the knob, and the canvas beneath them.
+   */
+  protected void buildElements() {
+    super.buildElements();
+    if (SliderCanvasRenderer.isSupported()) {
+      renderer = new SliderCanvasRenderer(this);
+    }
+  }
+
+  /**
+   * Draw some parts of the slider bar, painting the canvas once if the labels
+   * or the ticks changed.
+   * 
+   * @param parts the part flags of the parts to draw
+   */
+  protected void drawParts(int parts) {
+    super.drawParts(parts);
+    if (canvasDirty) {
+      canvasDirty = false;
+      if (isAttached()) {
+        renderer.paint();
+      }
+    }
+  }
+
+  /**
+   * Mark the canvas as needing to be painted, or draw the labels as elements
+   * if canvas rendering is not supported.
+   */
+  protected void drawLabels() {
+    if (renderer == null) {
+      super.drawLabels();
+    } else {
+      canvasDirty = true;
+    }
+  }
+
+  /**
+   * Mark the canvas as needing to be painted, or draw the ticks as elements if
+   * canvas rendering is not supported.
+   */
+  protected void drawTicks() {
+    if (renderer == null) {
+      super.drawTicks();
+    } else {
+      canvasDirty = true;
+    }
+  }
+
+  /**
+   * Start sliding the knob, painting the line in its sliding style.
+   * 
+   * @param highlight true to change the style
+   * @param fireEvent true to fire the event
+   */
+  protected void startSliding(boolean highlight, boolean fireEvent) {
+    super.startSliding(highlight, fireEvent);
+    if (highlight && (renderer != null) && isAttached()) {
+      renderer.paint();
+    }
+  }
+
+  /**
+   * Stop sliding the knob, painting the line in its normal style.
+   * 
+   * @param unhighlight true to change the style
+   * @param fireEvent true to fire the event
+   */
+  protected void stopSliding(boolean unhighlight, boolean fireEvent) {
+    super.stopSliding(unhighlight, fireEvent);
+    if (unhighlight && (renderer != null) && isAttached()) {
+      renderer.paint();
+    }
+  }
+}
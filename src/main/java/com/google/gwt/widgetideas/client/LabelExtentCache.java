@@ -0,0 +1,146 @@
+package com.google.gwt.widgetideas.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the measured extents of label texts, shared by all the slider
+ * bars, so that labels whose text was already measured for the same style
+ * base name and orientation are positioned without reading layout. The least
+ * recently used extents are evicted when the cache is full.
+ * 
+ * Extents depend on the CSS rules of the labels, so the cache should be
+ * cleared if those rules change after labels were drawn.
+ */
+public class LabelExtentCache {
+  /**
+   * A map in access order that removes its eldest entry when full.
+   */
+  private static class LruMap extends LinkedHashMap/* <String, Integer> */{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum number of entries.
+     */
+    private int maxSize;
+
+    public LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    protected boolean removeEldestEntry(Map.Entry eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  /**
+   * The default maximum number of extents.
+   */
+  public static final int DEFAULT_MAX_SIZE = 1024;
+
+  /**
+   * The cache shared by all the slider bars.
+   */
+  private static LabelExtentCache staticCache = null;
+
+  /**
+   * Get the cache shared by all the slider bars.
+   * 
+   * @return the shared cache
+   */
+  public static LabelExtentCache get() {
+    if (staticCache == null) {
+      staticCache = new LabelExtentCache();
+    }
+    return staticCache;
+  }
+
+  /**
+   * The extents, keyed by style base name, orientation and text.
+   */
+  private final LruMap extents = new LruMap(DEFAULT_MAX_SIZE);
+
+  /**
+   * Remove all the extents.
+   */
+  public void clear() {
+    extents.clear();
+  }
+
+  /**
+   * Get the measured extent of a label text.
+   * 
+   * @param styleBaseName the style base name of the slider bar
+   * @param vertical true for the height of the label, false for its width
+   * @param text the text of the label
+   * @return the extent in pixels, or -1 if it is not cached
+   */
+  public int getExtent(String styleBaseName, boolean vertical, String text) {
+    Integer extent = (Integer) extents.get(getKey(styleBaseName, vertical,
+        text));
+    return (extent == null) ? -1 : extent.intValue();
+  }
+
+  /**
+   * Get the maximum number of extents kept.
+   * 
+   * @return the maximum number of extents
+   */
+  public int getMaxSize() {
+    return extents.maxSize;
+  }
+
+  /**
+   * Store the measured extent of a label text, evicting the least recently
+   * used extent if the cache is full. Extents that are not positive are not
+   * stored, since they are measured when the label is not rendered, such as
+   * inside a hidden parent, so the label is measured again on the next redraw.
+   * 
+   * @param styleBaseName the style base name of the slider bar
+   * @param vertical true for the height of the label, false for its width
+   * @param text the text of the label
+   * @param extent the extent in pixels
+   */
+  public void putExtent(String styleBaseName, boolean vertical, String text,
+      int extent) {
+    if (extent <= 0) {
+      return;
+    }
+    extents.put(getKey(styleBaseName, vertical, text), Integer.valueOf(extent));
+  }
+
+  /**
+   * Set the maximum number of extents kept, evicting the least recently used
+   * extents as needed.
+   * 
+   * @param maxSize the maximum number of extents
+   */
+  public void setMaxSize(int maxSize) {
+    extents.maxSize = maxSize;
+    while (extents.size() > maxSize) {
+      extents.remove(extents.keySet().iterator().next());
+    }
+  }
+
+  /**
+   * Get the number of extents cached.
+   * 
+   * @return the number of extents
+   */
+  public int size() {
+    return extents.size();
+  }
+
+  /**
+   * Build the key of an extent.
+   * 
+   * @param styleBaseName the style base name of the slider bar
+   * @param vertical true for the height of the label, false for its width
+   * @param text the text of the label
+   * @return the key
+   */
+  private String getKey(String styleBaseName, boolean vertical, String text) {
+    return styleBaseName + (vertical ? "|v|" : "|h|") + text;
+  }
+}
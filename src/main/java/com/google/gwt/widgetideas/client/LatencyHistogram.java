@@ -0,0 +1,169 @@
+package com.google.gwt.widgetideas.client;
+
+/**
+ * A histogram of latencies in milliseconds, with buckets of a fixed width and
+ * a final bucket for the latencies beyond the last one. The buckets are
+ * allocated once, so recording a latency does not allocate.
+ * 
+ * Percentiles are reported as the upper bound of the bucket containing them,
+ * so they are accurate to the bucket width, except in the final bucket where
+ * the maximum recorded latency is reported.
+ */
+public class LatencyHistogram {
+  /**
+   * The width of each bucket in milliseconds.
+   */
+  private final double bucketWidth;
+
+  /**
+   * The number of latencies recorded in each bucket.
+   */
+  private final int[] counts;
+
+  /**
+   * The number of latencies recorded.
+   */
+  private int count = 0;
+
+  /**
+   * The largest latency recorded.
+   */
+  private double max = 0;
+
+  /**
+   * The sum of the latencies recorded.
+   */
+  private double sum = 0;
+
+  /**
+   * Create a histogram with 0.5 millisecond buckets up to 100 milliseconds.
+   */
+  public LatencyHistogram() {
+    this(0.5, 200);
+  }
+
+  /**
+   * Create a histogram.
+   * 
+   * @param bucketWidth the width of each bucket in milliseconds
+   * @param numBuckets the number of buckets before the final bucket
+   */
+  public LatencyHistogram(double bucketWidth, int numBuckets) {
+    this.bucketWidth = bucketWidth;
+    this.counts = new int[numBuckets + 1];
+  }
+
+  /**
+   * Get the width of each bucket in milliseconds.
+   * 
+   * @return the bucket width
+   */
+  public double getBucketWidth() {
+    return bucketWidth;
+  }
+
+  /**
+   * Get the number of latencies recorded.
+   * 
+   * @return the number of latencies
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Get the largest latency recorded.
+   * 
+   * @return the largest latency in milliseconds, or 0 if none was recorded
+   */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * Get the mean of the latencies recorded.
+   * 
+   * @return the mean latency in milliseconds, or 0 if none was recorded
+   */
+  public double getMean() {
+    return (count == 0) ? 0 : sum / count;
+  }
+
+  /**
+   * Get the median latency.
+   * 
+   * @return the 50th percentile in milliseconds
+   */
+  public double getP50() {
+    return getPercentile(50);
+  }
+
+  /**
+   * Get the 95th percentile latency.
+   * 
+   * @return the 95th percentile in milliseconds
+   */
+  public double getP95() {
+    return getPercentile(95);
+  }
+
+  /**
+   * Get the 99th percentile latency.
+   * 
+   * @return the 99th percentile in milliseconds
+   */
+  public double getP99() {
+    return getPercentile(99);
+  }
+
+  /**
+   * Get a percentile of the latencies recorded.
+   * 
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency in milliseconds below which the given percentage of
+   *         the latencies fall, or 0 if none was recorded
+   */
+  public double getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+
+    // Find the bucket holding the latency of the given rank
+    long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+    int last = counts.length - 1;
+    for (int i = 0; i < last; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min((i + 1) * bucketWidth, max);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Record a latency.
+   * 
+   * @param latency the latency in milliseconds
+   */
+  public void record(double latency) {
+    latency = Math.max(0, latency);
+    int bucket = (int) (latency / bucketWidth);
+    counts[Math.min(bucket, counts.length - 1)]++;
+    count++;
+    sum += latency;
+    max = Math.max(max, latency);
+  }
+
+  /**
+   * Remove all the latencies recorded.
+   */
+  public void reset() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = 0;
+    }
+    count = 0;
+    max = 0;
+    sum = 0;
+  }
+}
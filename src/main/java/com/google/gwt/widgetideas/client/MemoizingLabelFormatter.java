@@ -0,0 +1,106 @@
+package com.google.gwt.widgetideas.client;
+
+/**
+ * A {@link SliderBar.LabelFormatter} that remembers the text of the values it
+ * recently formatted, so that redrawing the same labels formats nothing and
+ * allocates nothing. The memo is a fixed-size table indexed by a hash of the
+ * value, in which a value replaces any other value with the same index.
+ * 
+ * Subclasses implement {@link #format(double)}, which must always return the
+ * same text for the same value.
+ */
+public abstract class MemoizingLabelFormatter extends SliderBar.LabelFormatter {
+  /**
+   * The default number of entries in the memo.
+   */
+  public static final int DEFAULT_MEMO_SIZE = 64;
+
+  /**
+   * The mask applied to hashes to get a memo index.
+   */
+  private final int memoMask;
+
+  /**
+   * The text of the value at each memo index, or null if there is none.
+   */
+  private final String[] memoTexts;
+
+  /**
+   * The value at each memo index.
+   */
+  private final double[] memoValues;
+
+  /**
+   * Create a formatter with a memo of the default size.
+   */
+  protected MemoizingLabelFormatter() {
+    this(DEFAULT_MEMO_SIZE);
+  }
+
+  /**
+   * Create a formatter.
+   * 
+   * @param memoSize the number of entries in the memo, rounded up to a power
+   *          of two
+   */
+  protected MemoizingLabelFormatter(int memoSize) {
+    int size = 1;
+    while (size < memoSize) {
+      size <<= 1;
+    }
+    memoMask = size - 1;
+    memoTexts = new String[size];
+    memoValues = new double[size];
+  }
+
+  /**
+   * Forget all the texts remembered, for example after changing a setting that
+   * affects the format.
+   */
+  public void clearMemo() {
+    for (int i = 0; i < memoTexts.length; i++) {
+      memoTexts[i] = null;
+    }
+  }
+
+  /**
+   * Format a value, without memoization.
+   * 
+   * @param value the value to format
+   * @return the text of the value
+   */
+  protected abstract String format(double value);
+
+  /**
+   * Return the remembered text of a value, or format it and remember it.
+   * 
+   * @param slider the Slider bar
+   * @param value the value the label displays
+   * @return the text to display for the label
+   */
+  protected String formatLabel(SliderBar slider, double value) {
+    int index = hash(value) & memoMask;
+    String text = memoTexts[index];
+    if ((text == null) || (memoValues[index] != value)) {
+      text = format(value);
+      memoTexts[index] = text;
+      memoValues[index] = value;
+    }
+    return text;
+  }
+
+  /**
+   * Hash a value, mixing the bits so that evenly spaced values spread over the
+   * memo.
+   * 
+   * @param value the value
+   * @return the hash
+   */
+  private int hash(double value) {
+    long bits = Double.doubleToLongBits(value);
+    int hash = (int) (bits ^ (bits >>> 32));
+    hash ^= (hash >>> 16);
+    hash *= 0x45d9f3b;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,41 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.i18n.client.NumberFormat;
+
+/**
+ * A label formatter that displays values in the percent format of the current
+ * locale. By default, values are fractions, so 0.5 is displayed as 50%.
+ */
+public class PercentLabelFormatter extends MemoizingLabelFormatter {
+  /**
+   * The format used to format values.
+   */
+  private final NumberFormat format;
+
+  /**
+   * The factor applied to values to make them fractions.
+   */
+  private final double scale;
+
+  /**
+   * Create a formatter for values that are fractions.
+   */
+  public PercentLabelFormatter() {
+    this(1);
+  }
+
+  /**
+   * Create a formatter for values of a range that maps to 100%, such as 0 to
+   * 255.
+   * 
+   * @param fullValue the value displayed as 100%
+   */
+  public PercentLabelFormatter(double fullValue) {
+    this.format = NumberFormat.getPercentFormat();
+    this.scale = 1 / fullValue;
+  }
+
+  protected String format(double value) {
+    return format.format(value * scale);
+  }
+}
@@ -15,10 +15,16 @@
  */
 package com.google.gwt.widgetideas.client;
 
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.WindowResizeListener;
+import com.google.gwt.widgetideas.client.impl.ResizeObserverImpl;
+import com.google.gwt.widgetideas.client.impl.ResizeObserverImpl.ResizeCallback;
+import com.google.gwt.widgetideas.client.impl.VisibilityObserverImpl;
+import com.google.gwt.widgetideas.client.impl.VisibilityObserverImpl.VisibilityCallback;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -28,7 +34,13 @@ import java.util.Map;
  * A collection of {@link ResizableWidget} that periodically checks the outer
  * dimensions of a widget and redraws it as necessary. Every
  * {@link ResizableWidgetCollection} uses a timer, so consider the cost when
- * adding one.
+ * adding one. In browsers that support ResizeObserver, the widgets are
+ * observed instead and the timer is not used.
+ * 
+ * Resize checking only runs while the collection contains widgets, so an
+ * empty collection costs nothing. With visibility suspension enabled, it is
+ * also suspended while the document is hidden, and widgets outside the
+ * viewport are only checked once they scroll back into view.
  * 
  * Typically, a {@link ResizableWidgetCollection} is only needed if you expect
  * your widgets to resize based on window resizing or other events. Fixed sized
@@ -50,6 +62,11 @@ public class ResizableWidgetCollection implements WindowResizeListener {
      */
     private int curWidth = 0;
 
+    /**
+     * Whether the widget is in the viewport.
+     */
+    private boolean visible = true;
+
     /**
      * Constructor.
      * 
@@ -120,7 +137,7 @@ public class ResizableWidgetCollection implements WindowResizeListener {
       checkWidgetSize();
 
       // Start checking again
-      if (resizeCheckingEnabled) {
+      if (resizeCheckingRunning) {
         schedule(resizeCheckDelay);
       }
     }
@@ -131,6 +148,95 @@ public class ResizableWidgetCollection implements WindowResizeListener {
    */
   private HashMap/* <ResizableWidget, ResizableWidgetInfo> */widgets = new HashMap();
 
+  /**
+   * A hash map of the elements of the widgets this collection is checking.
+   */
+  private HashMap/* <Element, ResizableWidget> */widgetElements = new HashMap();
+
+  /**
+   * The implementation used to observe widget resizes instead of polling them.
+   */
+  private ResizeObserverImpl resizeObserver = (ResizeObserverImpl) GWT.create(ResizeObserverImpl.class);
+
+  /**
+   * The callback notified when an observed widget is resized.
+   */
+  private ResizeCallback resizeCallback = new ResizeCallback() {
+    public void onElementResized(Element element) {
+      ResizableWidget widget = (ResizableWidget) widgetElements.get(element);
+      if (widget != null) {
+        checkWidgetSize(widget, (ResizableWidgetInfo) widgets.get(widget));
+      }
+    }
+  };
+
+  /**
+   * A boolean indicating that widget resizes are observed rather than polled.
+   */
+  private boolean resizeObserving = false;
+
+  /**
+   * The implementation used to observe the visibility of the document and the
+   * widgets.
+   */
+  private VisibilityObserverImpl visibilityObserver = (VisibilityObserverImpl) GWT.create(VisibilityObserverImpl.class);
+
+  /**
+   * The callback notified when the visibility of the document or of a widget
+   * changes.
+   */
+  private VisibilityCallback visibilityCallback = new VisibilityCallback() {
+    public void onDocumentVisibilityChanged(boolean hidden) {
+      documentHidden = hidden;
+      if (!hidden) {
+        // Catch up with the resizes that happened while hidden
+        checkWidgetSize();
+      }
+      updateResizeChecking();
+    }
+
+    public void onElementVisibilityChanged(Element element, boolean visible) {
+      ResizableWidget widget = (ResizableWidget) widgetElements.get(element);
+      if (widget != null) {
+        ResizableWidgetInfo info = (ResizableWidgetInfo) widgets.get(widget);
+        info.visible = visible;
+        if (visible) {
+          // Redraw the widget if it was resized while out of view
+          checkWidgetSize(widget, info);
+        }
+      }
+    }
+  };
+
+  /**
+   * A boolean indicating that resize checking is suspended while the document
+   * is hidden and skipped for widgets outside the viewport.
+   */
+  private boolean visibilitySuspensionEnabled = false;
+
+  /**
+   * A boolean indicating that the document is hidden.
+   */
+  private boolean documentHidden = false;
+
+  /**
+   * The counts of the DOM operations of this collection, or null if counting
+   * is disabled.
+   */
+  private final DomCounters domCounters = DomCounters.isEnabled()
+      ? new DomCounters() : null;
+
+  /**
+   * The number of widget size checks performed.
+   */
+  private int performedCheckCount = 0;
+
+  /**
+   * The number of widget size checks skipped because the widget was outside
+   * the viewport.
+   */
+  private int skippedCheckCount = 0;
+
   /**
    * The current window height.
    */
@@ -151,6 +257,12 @@ public class ResizableWidgetCollection implements WindowResizeListener {
    */
   private boolean resizeCheckingEnabled = true;
 
+  /**
+   * A boolean indicating that resize checking is running. Resize checking only
+   * runs while it is enabled and the collection is not empty.
+   */
+  private boolean resizeCheckingRunning = false;
+
   /**
    * Create a ResizableWidget.
    */
@@ -183,11 +295,7 @@ public class ResizableWidgetCollection implements WindowResizeListener {
       boolean resizeCheckingEnabled) {
     Window.addWindowResizeListener(this);
     setResizeCheckDelay(resizeCheckDelay);
-    if (resizeCheckingEnabled) {
-      resizeCheckTimer.schedule(resizeCheckDelay);
-    } else {
-      this.resizeCheckingEnabled = false;
-    }
+    this.resizeCheckingEnabled = resizeCheckingEnabled;
   }
 
   /**
@@ -197,6 +305,49 @@ public class ResizableWidgetCollection implements WindowResizeListener {
    */
   public void add(ResizableWidget widget) {
     widgets.put(widget, new ResizableWidgetInfo(widget));
+    if (DomCounters.isEnabled()) {
+      domCounters.propertyReads += 2;
+    }
+    widgetElements.put(widget.getElement(), widget);
+    if (resizeObserving) {
+      resizeObserver.observe(widget.getElement());
+    }
+    if (visibilitySuspensionEnabled) {
+      visibilityObserver.observe(widget.getElement());
+    }
+    updateResizeChecking();
+  }
+
+  /**
+   * Check whether a widget is in the collection.
+   * 
+   * @param widget the resizable widget
+   * @return true if the widget is in the collection
+   */
+  public boolean contains(ResizableWidget widget) {
+    return widgets.containsKey(widget);
+  }
+
+  /**
+   * Return the counts of the DOM operations performed by this collection, in
+   * which listener dispatches are the calls to
+   * {@link ResizableWidget#onResize(int, int)}.
+   * 
+   * @return the counts, or null if counting is disabled
+   * @see DomCounters
+   */
+  public DomCounters getDomCounters() {
+    return domCounters;
+  }
+
+  /**
+   * Get the number of widget size checks performed since the collection was
+   * created or the counts were last reset.
+   * 
+   * @return the number of performed checks
+   */
+  public int getPerformedCheckCount() {
+    return performedCheckCount;
   }
 
   /**
@@ -208,6 +359,17 @@ public class ResizableWidgetCollection implements WindowResizeListener {
     return resizeCheckDelay;
   }
   
+  /**
+   * Get the number of widget size checks skipped because the widget was
+   * outside the viewport, since the collection was created or the counts were
+   * last reset.
+   * 
+   * @return the number of skipped checks
+   */
+  public int getSkippedCheckCount() {
+    return skippedCheckCount;
+  }
+
   /**
    * Check whether or not resize checking is enabled.
    * 
@@ -217,6 +379,27 @@ public class ResizableWidgetCollection implements WindowResizeListener {
     return resizeCheckingEnabled;
   }
 
+  /**
+   * Check whether resize checking is running, with a timer or by observing the
+   * widgets. Resize checking only runs while it is enabled, the collection is
+   * not empty and the document is visible.
+   * 
+   * @return true if resize checking is running
+   */
+  public boolean isResizeCheckingRunning() {
+    return resizeCheckingRunning;
+  }
+
+  /**
+   * Check whether resize checking is suspended while the document is hidden
+   * and skipped for widgets outside the viewport.
+   * 
+   * @return true if visibility suspension is enabled
+   */
+  public boolean isVisibilitySuspensionEnabled() {
+    return visibilitySuspensionEnabled;
+  }
+
   /**
    * Called when the browser window is resized.
    * 
@@ -233,7 +416,33 @@ public class ResizableWidgetCollection implements WindowResizeListener {
    * @param widget the widget to remove
    */
   public void remove(ResizableWidget widget) {
-    widgets.remove(widget);
+    if (widgets.remove(widget) != null) {
+      widgetElements.remove(widget.getElement());
+      if (resizeObserving) {
+        resizeObserver.unobserve(widget.getElement());
+      }
+      if (visibilitySuspensionEnabled) {
+        visibilityObserver.unobserve(widget.getElement());
+      }
+      updateResizeChecking();
+    }
+  }
+
+  /**
+   * Reset the performed and skipped check counts.
+   */
+  public void resetCheckCounts() {
+    performedCheckCount = 0;
+    skippedCheckCount = 0;
+  }
+
+  /**
+   * Get the number of widgets in the collection.
+   * 
+   * @return the number of widgets
+   */
+  public int size() {
+    return widgets.size();
   }
 
   /**
@@ -253,13 +462,37 @@ public class ResizableWidgetCollection implements WindowResizeListener {
    * @param enabled true to enable the resize checking timer
    */
   public void setResizeCheckingEnabled(boolean enabled) {
-    if (enabled && !resizeCheckingEnabled) {
-      resizeCheckingEnabled = true;
-      resizeCheckTimer.schedule(resizeCheckDelay);
-    } else if (!enabled && resizeCheckingEnabled) {
-      resizeCheckingEnabled = false;
-      resizeCheckTimer.cancel();
+    resizeCheckingEnabled = enabled;
+    updateResizeChecking();
+  }
+
+  /**
+   * Set whether resize checking is suspended while the document is hidden and
+   * skipped for widgets outside the viewport. Widgets that scroll back into
+   * view are checked, and redrawn if needed, at that time. Browsers that
+   * cannot observe visibility keep checking all widgets.
+   * 
+   * @param enabled true to enable visibility suspension
+   */
+  public void setVisibilitySuspensionEnabled(boolean enabled) {
+    if (enabled && !visibilitySuspensionEnabled) {
+      visibilitySuspensionEnabled = true;
+      visibilityObserver.connect(visibilityCallback);
+      documentHidden = visibilityObserver.isDocumentHidden();
+      Iterator it = widgets.keySet().iterator();
+      while (it.hasNext()) {
+        visibilityObserver.observe(((ResizableWidget) it.next()).getElement());
+      }
+    } else if (!enabled && visibilitySuspensionEnabled) {
+      visibilitySuspensionEnabled = false;
+      visibilityObserver.disconnect();
+      documentHidden = false;
+      Iterator it = widgets.values().iterator();
+      while (it.hasNext()) {
+        ((ResizableWidgetInfo) it.next()).visible = true;
+      }
     }
+    updateResizeChecking();
   }
 
   /**
@@ -270,19 +503,85 @@ public class ResizableWidgetCollection implements WindowResizeListener {
     Iterator it = widgets.entrySet().iterator();
     while (it.hasNext()) {
       Map.Entry entry = (Map.Entry) it.next();
-      ResizableWidget widget = (ResizableWidget) entry.getKey();
-      ResizableWidgetInfo info = (ResizableWidgetInfo) entry.getValue();
-      int curWidth = DOM.getElementPropertyInt(widget.getElement(),
-          "clientWidth");
-      int curHeight = DOM.getElementPropertyInt(widget.getElement(),
-          "clientHeight");
-
-      // Call the onResize method only if the widget is attached
-      if (info.setClientSize(curWidth, curHeight)) {
-        if (widget.isAttached()) {
-          widget.onResize(curWidth, curHeight);
+      checkWidgetSize((ResizableWidget) entry.getKey(),
+          (ResizableWidgetInfo) entry.getValue());
+    }
+  }
+
+  /**
+   * Check to see if a Widget has been resized and call its handler
+   * appropriately.
+   * 
+   * @param widget the widget to check
+   * @param info the last known size of the widget
+   */
+  private void checkWidgetSize(ResizableWidget widget, ResizableWidgetInfo info) {
+    // Skip widgets outside the viewport until they become visible again
+    if (!info.visible) {
+      skippedCheckCount++;
+      return;
+    }
+    performedCheckCount++;
+    if (DomCounters.isEnabled()) {
+      domCounters.propertyReads += 2;
+    }
+    int curWidth = DOM.getElementPropertyInt(widget.getElement(),
+        "clientWidth");
+    int curHeight = DOM.getElementPropertyInt(widget.getElement(),
+        "clientHeight");
+
+    // Call the onResize method only if the widget is attached
+    if (info.setClientSize(curWidth, curHeight)) {
+      if (widget.isAttached()) {
+        if (DomCounters.isEnabled()) {
+          domCounters.listenerDispatches++;
         }
+        widget.onResize(curWidth, curHeight);
+      }
+    }
+  }
+
+  /**
+   * Start detecting resizes, by observing the widgets if the browser supports
+   * it or by polling them otherwise.
+   */
+  private void startResizeChecking() {
+    if (resizeObserver.connect(resizeCallback)) {
+      resizeObserving = true;
+      Iterator it = widgets.keySet().iterator();
+      while (it.hasNext()) {
+        resizeObserver.observe(((ResizableWidget) it.next()).getElement());
       }
+    } else {
+      resizeCheckTimer.schedule(resizeCheckDelay);
+    }
+  }
+
+  /**
+   * Stop detecting resizes.
+   */
+  private void stopResizeChecking() {
+    if (resizeObserving) {
+      resizeObserving = false;
+      resizeObserver.disconnect();
+    } else {
+      resizeCheckTimer.cancel();
+    }
+  }
+
+  /**
+   * Start or stop resize checking, depending on whether it is enabled, whether
+   * there are widgets to check and whether the document is visible.
+   */
+  private void updateResizeChecking() {
+    boolean run = resizeCheckingEnabled && !widgets.isEmpty()
+        && !documentHidden;
+    if (run && !resizeCheckingRunning) {
+      resizeCheckingRunning = true;
+      startResizeChecking();
+    } else if (!run && resizeCheckingRunning) {
+      resizeCheckingRunning = false;
+      stopResizeChecking();
     }
   }
 }
@@ -13,5 +13,8 @@ public interface Resources extends ClientBundle {
 	@NotStrict
 	@Source("VSliderBar.css")
 	public CssResource getVSliderCss();
+	@NotStrict
+	@Source("SliderPanel.css")
+	public CssResource getSliderPanelCss();
 
 }
@@ -0,0 +1,90 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.i18n.client.NumberFormat;
+
+/**
+ * A label formatter that displays values with an SI prefix and a unit, such as
+ * 1.5 kHz or 20 ms, in the decimal format of the current locale.
+ */
+public class SILabelFormatter extends MemoizingLabelFormatter {
+  /**
+   * The prefixes, from 10^-18 to 10^18.
+   */
+  private static final String[] PREFIXES = {
+      "a", "f", "p", "n", "\u00b5", "m", "", "k", "M", "G", "T", "P", "E"};
+
+  /**
+   * The index of the empty prefix.
+   */
+  private static final int UNIT_INDEX = 6;
+
+  /**
+   * The format used to format the scaled values.
+   */
+  private final NumberFormat format;
+
+  /**
+   * The factor of the scaled values rounded to the maximum number of decimals.
+   */
+  private final double roundingFactor;
+
+  /**
+   * The unit appended to the prefix.
+   */
+  private final String unit;
+
+  /**
+   * Create a formatter.
+   * 
+   * @param unit the unit, such as "Hz", or an empty string
+   * @param maxDecimals the maximum number of decimals of the scaled values
+   */
+  public SILabelFormatter(String unit, int maxDecimals) {
+    StringBuffer pattern = new StringBuffer("0");
+    if (maxDecimals > 0) {
+      pattern.append('.');
+      for (int i = 0; i < maxDecimals; i++) {
+        pattern.append('#');
+      }
+    }
+    this.format = NumberFormat.getFormat(pattern.toString());
+    this.roundingFactor = Math.pow(10, Math.max(0, maxDecimals));
+    this.unit = unit;
+  }
+
+  protected String format(double value) {
+    // Choose the prefix from the magnitude of the value
+    int index = UNIT_INDEX;
+    if ((value != 0) && !Double.isNaN(value) && !Double.isInfinite(value)) {
+      int exponent = (int) Math.floor(Math.log10(Math.abs(value)) / 3);
+      index = Math.max(0, Math.min(PREFIXES.length - 1, UNIT_INDEX + exponent));
+    }
+    double scaled = round(value / Math.pow(1000, index - UNIT_INDEX));
+
+    // Move to the next prefix if the value rounded up to 1000, as in 999.95
+    if ((Math.abs(scaled) >= 1000) && (index < PREFIXES.length - 1)) {
+      index++;
+      scaled = round(value / Math.pow(1000, index - UNIT_INDEX));
+    }
+
+    // Only separate the number from a prefix or a unit
+    String suffix = PREFIXES[index] + unit;
+    if (suffix.length() == 0) {
+      return format.format(scaled);
+    }
+    return format.format(scaled) + " " + suffix;
+  }
+
+  /**
+   * Round a scaled value to the maximum number of decimals.
+   * 
+   * @param scaled the scaled value
+   * @return the rounded value
+   */
+  private double round(double scaled) {
+    if (Double.isNaN(scaled) || Double.isInfinite(scaled)) {
+      return scaled;
+    }
+    return Math.round(scaled * roundingFactor) / roundingFactor;
+  }
+}
@@ -3,7 +3,12 @@ package com.google.gwt.widgetideas.client;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.StyleInjector;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Element;
@@ -12,16 +17,21 @@ import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.AbstractImagePrototype;
 import com.google.gwt.user.client.ui.FocusPanel;
 import com.google.gwt.user.client.ui.Image;
+import com.google.gwt.widgetideas.client.impl.KnobPositionImpl;
 
 /**
  * Abstract base class for slider bars.
+ * 
+ * The range, step size, current value and numbers of labels and ticks are
+ * held by a {@link SliderModel}. The protected fields <code>curValue</code>,
+ * <code>minValue</code>, <code>maxValue</code>, <code>stepSize</code>,
+ * <code>numLabels</code> and <code>numTicks</code> of earlier versions have
+ * been removed, so subclasses that used them no longer compile. Subclasses
+ * should read these values with the getters, such as
+ * {@link #getCurrentValue()} and {@link #getStepSize()}, and change them with
+ * the matching setters or through {@link #getModel()}.
  */
 public abstract class SliderBar extends FocusPanel implements ResizableWidget, SourcesSliderEvents {
-	static {
-		// Inject CSS in the document headers
-		StyleInjector.inject(Resources.INSTANCE.getHSliderCss().getText());
-		StyleInjector.inject(Resources.INSTANCE.getVSliderCss().getText());
-	}
   /**
    * The timer used to continue to shift the knob as the user holds down one of
    * the left/right arrow keys. Only IE auto-repeats, so we just keep catching
@@ -62,9 +72,9 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
 
       // Slide the slider bar
       if (shiftBottom) {
-        setCurrentValue(curValue + multiplier * stepSize);
+        shiftSteps(multiplier);
       } else {
-        setCurrentValue(curValue - multiplier * stepSize);
+        shiftSteps(-multiplier);
       }
 
       // Repeat this timer until cancelled by keyup event
@@ -105,65 +115,316 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
     }
   }
   /**
-   * The current value.
+   * The part flag for the knob.
    */
-  protected double curValue;
+  protected static final int DRAW_KNOB = 1;
 
   /**
-   * The images used with the sliding bar.
+   * The part flag for the labels.
+   */
+  protected static final int DRAW_LABELS = 2;
+
+  /**
+   * The part flag for the ticks.
+   */
+  protected static final int DRAW_TICKS = 4;
+
+  /**
+   * The part flags for all the parts of the slider bar.
+   */
+  protected static final int DRAW_ALL = DRAW_KNOB | DRAW_LABELS | DRAW_TICKS;
+
+  /**
+   * The tick rendering strategy that creates one element per tick.
+   */
+  public static final int TICKS_ELEMENTS = 0;
+
+  /**
+   * The tick rendering strategy that paints all the ticks as the repeating
+   * gradient background of a single element.
+   */
+  public static final int TICKS_GRADIENT = 1;
+
+  /**
+   * The implementation used to position the knob when knob transforms are
+   * enabled.
+   */
+  private static KnobPositionImpl knobTransformImpl;
+
+  /**
+   * Get the current time from the high resolution clock of the page, falling
+   * back to the date where it is not available.
+   * 
+   * @return the current time in milliseconds
+   */
+  private static native double now() /*-{
+    var perf = $wnd.performance;
+    return (perf && perf.now) ? perf.now() : new Date().getTime();
+  }-*/;
+
+  /**
+   * Get the implementation used to position the knob when knob transforms are
+   * enabled.
+   * 
+   * @return the knob position implementation
+   */
+  private static KnobPositionImpl getKnobTransformImpl() {
+    if (knobTransformImpl == null) {
+      knobTransformImpl = (KnobPositionImpl) GWT.create(KnobPositionImpl.class);
+    }
+    return knobTransformImpl;
+  }
+
+  /**
+   * A bit indicating whether mouse drag updates are coalesced into one knob
+   * update per animation frame.
+   */
+  protected boolean dragCoalescing = false;
+
+  /**
+   * The callback used to apply the latest pointer position once per animation
+   * frame while dragging. The knob is drawn in the callback, which runs right
+   * before the frame is painted.
+   */
+  private final AnimationCallback dragFrameCallback = new AnimationCallback() {
+    public void execute(double timestamp) {
+      dragFrameHandle = null;
+      drawingDragFrame = true;
+      try {
+        slideKnob(pendingDragPosition);
+        if (updateDepth == 0) {
+          drawParts(0);
+        }
+      } finally {
+        drawingDragFrame = false;
+      }
+    }
+  };
+
+  /**
+   * A bit indicating whether the drag frame callback is running.
+   */
+  private boolean drawingDragFrame = false;
+
+  /**
+   * The parts that need to be redrawn.
+   */
+  private int dirtyParts = 0;
+
+  /**
+   * The counts of the DOM operations of this slider bar, or null if counting
+   * is disabled.
+   */
+  protected final DomCounters domCounters = DomCounters.isEnabled()
+      ? new DomCounters() : null;
+
+  /**
+   * The command that redraws the dirty parts at the end of the current event
+   * loop.
+   */
+  private final ScheduledCommand drawCommand = new ScheduledCommand() {
+    public void execute() {
+      drawScheduled = false;
+      if (updateDepth == 0) {
+        drawParts(0);
+      }
+    }
+  };
+
+  /**
+   * A bit indicating whether the draw command is scheduled.
+   */
+  private boolean drawScheduled = false;
+
+  /**
+   * The handle of the pending drag frame, or null if none is pending.
+   */
+  private AnimationHandle dragFrameHandle;
+
+  /**
+   * The latest pointer position received while a drag frame is pending.
+   */
+  private int pendingDragPosition;
+
+  /**
+   * A bit indicating whether the captured line and knob geometry is valid.
+   */
+  protected boolean geometryValid = false;
+
+  /**
+   * The images used with the sliding bar, or null to use the default images.
    */
   protected AbstractImagePrototype[] images;
   
 
   /**
-   * The knob that slides across the line.
+   * The length of the knob along the line, as last captured.
+   */
+  protected int knobLength;
+
+  /**
+   * The knob that slides across the line, or null until the slider bar is
+   * first attached.
+   */
+  protected Image knobImage;
+
+  /**
+   * A bit indicating whether the knob is positioned with CSS transforms.
+   */
+  protected boolean knobTransformEnabled = false;
+
+  /**
+   * The timer used to continue to shift the knob if the user holds down a key,
+   * or null until the slider bar is first attached.
+   */
+  protected KeyTimer keyTimer;
+
+  /**
+   * The histogram of input to paint latencies, or null if latencies are not
+   * recorded.
+   */
+  private LatencyHistogram latencyHistogram;
+
+  /**
+   * The command that discards the input time at the end of the event loop if
+   * the input did not move the knob.
+   */
+  private final ScheduledCommand latencyCheckCommand = new ScheduledCommand() {
+    public void execute() {
+      if (!latencyFrameScheduled && ((dirtyParts & DRAW_KNOB) == 0)
+          && (dragFrameHandle == null)) {
+        latencyInputTime = -1;
+      }
+    }
+  };
+
+  /**
+   * The callback that records the latency of the pending input in the frame
+   * following a knob move.
+   */
+  private final AnimationCallback latencyFrameCallback = new AnimationCallback() {
+    public void execute(double timestamp) {
+      latencyFrameHandle = null;
+      latencyFrameScheduled = false;
+      recordLatency();
+    }
+  };
+
+  /**
+   * The handle of the pending latency frame, or null if none is pending.
+   */
+  private AnimationHandle latencyFrameHandle;
+
+  /**
+   * A bit indicating whether the latency frame has been requested.
+   */
+  private boolean latencyFrameScheduled = false;
+
+  /**
+   * The time of the earliest input that has not been painted yet, or -1 if
+   * there is none.
+   */
+  private double latencyInputTime = -1;
+
+  /**
+   * A bit indicating whether {@link #modelListener} is registered with the
+   * model, which it is while the slider bar is attached.
+   */
+  private boolean modelListening = false;
+
+  /**
+   * The template shared by the slider bars with the same style base name, or
+   * null until it is first needed.
    */
-  protected Image knobImage = new Image();
+  private SliderTemplate template;
 
   /**
-   * The timer used to continue to shift the knob if the user holds down a key.
+   * A bit indicating whether the line and knob have been created.
    */
-  protected KeyTimer keyTimer = new KeyTimer();
+  private boolean elementsBuilt = false;
 
   /**
    * The elements used to display labels above the ticks.
    */
   protected List/* <Element> */labelElements = new ArrayList/* <Element> */();
 
+  /**
+   * The text of each label element, or null if it has not been set.
+   */
+  protected List/* <String> */labelTexts = new ArrayList/* <String> */();
+
   /**
    * The formatter used to generate label text.
    */
   protected LabelFormatter labelFormatter;
 
   /**
-   * The line that the knob moves over.
+   * The line that the knob moves over, or null until the slider bar is first
+   * attached.
    */
   protected Element lineElement;
 
+  /**
+   * The length of the line, as last captured.
+   */
+  protected int lineLength;
+
   /**
    * The offset between the edge of the shell and the line.
    */
   protected int lineOffset;
 
   /**
-   * The maximum slider value.
+   * The absolute page position of the start of the line, as last captured.
    */
-  protected double maxValue;
+  protected int lineStart;
 
   /**
-   * The minimum slider value.
+   * The minimum distance in pixels between the labels shown, or 0 to show
+   * every label.
    */
-  protected double minValue;
+  protected int minLabelSpacing = 0;
 
   /**
-   * The number of labels to show.
+   * The minimum distance in pixels between the ticks shown, or 0 to show every
+   * tick.
    */
-  protected int numLabels;
+  protected int minTickSpacing = 0;
 
   /**
-   * The number of tick marks to show.
+   * The model holding the range, step size and current value.
    */
-  protected int numTicks;
+  protected SliderModel model;
+
+  /**
+   * The listener that redraws the slider bar and fires slider events when the
+   * model changes.
+   */
+  private final SliderModel.ChangeListener modelListener = new SliderModel.ChangeListener() {
+    public void onModelChanged(SliderModel model, int changes, boolean fireEvent) {
+      int parts = 0;
+      if ((changes & (SliderModel.RANGE | SliderModel.LABELS)) != 0) {
+        parts |= DRAW_LABELS;
+      }
+      if ((changes & SliderModel.TICKS) != 0) {
+        parts |= DRAW_TICKS;
+      }
+      if ((changes & SliderModel.VALUE) != 0) {
+        parts |= DRAW_KNOB;
+      }
+      invalidateParts(parts);
+
+      // Fire the onValueChange event
+      if (((changes & SliderModel.VALUE) != 0) && fireEvent
+          && (sliderListeners != null)) {
+        if (DomCounters.isEnabled()) {
+          domCounters.listenerDispatches += sliderListeners.size();
+        }
+        sliderListeners.fireValueChanged(SliderBar.this,
+            model.getCurrentValue());
+      }
+    }
+  };
 
   /**
    * A bit indicating whether or not we are currently sliding the slider bar due
@@ -182,11 +443,6 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    */
   protected boolean slidingMouse = false;
 
-  /**
-   * The size of the increments between knob positions.
-   */
-  protected double stepSize;
-
   /**
    * The base name from which CSS style names for the slider are derived.
    */
@@ -198,6 +454,22 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    */
   protected List/* <Element> */tickElements = new ArrayList/* <Element> */();
 
+  /**
+   * The tick rendering strategy.
+   */
+  protected int tickRendering = TICKS_ELEMENTS;
+
+  /**
+   * The element whose background paints the ticks with the gradient strategy,
+   * or null if it has not been created.
+   */
+  protected Element tickStripElement;
+
+  /**
+   * The number of nested {@link #beginUpdate()} calls.
+   */
+  private int updateDepth = 0;
+
   public SliderBar() {
 	  super();
 	    sinkEvents(Event.FOCUSEVENTS | Event.KEYEVENTS | Event.ONCLICK
@@ -211,13 +483,58 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
     sliderListeners.add(listener);
   }
 
+  public void addSliderListener(SliderListener listener,
+      ValueChangeFilter filter) {
+    if (sliderListeners == null) {
+      sliderListeners = new SliderListenerCollection();
+    }
+    sliderListeners.add(listener, filter);
+  }
+
+  /**
+   * Start a batch of updates. Until the matching {@link #endUpdate()}, changes
+   * to the slider bar properties are not drawn. Calls may be nested.
+   */
+  public void beginUpdate() {
+    updateDepth++;
+  }
+
+  /**
+   * End a batch of updates started with {@link #beginUpdate()}. When the
+   * outermost batch ends, the parts changed during the batch are drawn once.
+   */
+  public void endUpdate() {
+    if ((updateDepth > 0) && (--updateDepth == 0)) {
+      drawParts(0);
+    }
+  }
+
   /**
    * Return the current value.
    * 
    * @return the current value
    */
   public double getCurrentValue() {
-    return curValue;
+    return model.getCurrentValue();
+  }
+
+  /**
+   * Return the model holding the range, step size and current value.
+   * 
+   * @return the model
+   */
+  public SliderModel getModel() {
+    return model;
+  }
+
+  /**
+   * Return the counts of the DOM operations performed by this slider bar.
+   * 
+   * @return the counts, or null if counting is disabled
+   * @see DomCounters
+   */
+  public DomCounters getDomCounters() {
+    return domCounters;
   }
 
   /**
@@ -229,13 +546,42 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
     return labelFormatter;
   }
 
+  /**
+   * Return the minimum distance between the labels shown.
+   * 
+   * @return the minimum distance in pixels, or 0 if every label is shown
+   */
+  public int getMinLabelSpacing() {
+    return minLabelSpacing;
+  }
+
+  /**
+   * Return the minimum distance between the ticks shown.
+   * 
+   * @return the minimum distance in pixels, or 0 if every tick is shown
+   */
+  public int getMinTickSpacing() {
+    return minTickSpacing;
+  }
+
+  /**
+   * Return the histogram of the latencies between an input event and the
+   * animation frame painting the knob it moved.
+   * 
+   * @return the histogram, or null if latencies are not recorded
+   * @see #setLatencyRecordingEnabled(boolean)
+   */
+  public LatencyHistogram getLatencyHistogram() {
+    return latencyHistogram;
+  }
+
   /**
    * Return the max value.
    * 
    * @return the max value
    */
   public double getMaxValue() {
-    return maxValue;
+    return model.getMaxValue();
   }
 
   /**
@@ -244,7 +590,7 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @return the minimum value
    */
   public double getMinValue() {
-    return minValue;
+    return model.getMinValue();
   }
 
   /**
@@ -253,7 +599,7 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @return the number of labels
    */
   public int getNumLabels() {
-    return numLabels;
+    return model.getNumLabels();
   }
 
   /**
@@ -262,7 +608,26 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @return the number of ticks
    */
   public int getNumTicks() {
-    return numTicks;
+    return model.getNumTicks();
+  }
+
+  /**
+   * Return the tick rendering strategy.
+   * 
+   * @return {@link #TICKS_ELEMENTS} or {@link #TICKS_GRADIENT}
+   */
+  public int getTickRendering() {
+    return tickRendering;
+  }
+
+  /**
+   * Return the index of the current value, counted in steps from the minimum
+   * value.
+   * 
+   * @return the step index
+   */
+  public long getStepIndex() {
+    return model.getStepIndex();
   }
 
   /**
@@ -271,7 +636,7 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @return the step size
    */
   public double getStepSize() {
-    return stepSize;
+    return model.getStepSize();
   }
 
   /**
@@ -280,11 +645,68 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @return the total range
    */
   public double getTotalRange() {
-    if (minValue > maxValue) {
-      return 0;
-    } else {
-      return maxValue - minValue;
+    return model.getTotalRange();
+  }
+
+  /**
+   * Invalidate the captured line and knob geometry, so that it is captured
+   * again the next time it is needed.
+   */
+  public void invalidateGeometry() {
+    geometryValid = false;
+  }
+
+  /**
+   * Check whether mouse drag updates are coalesced into one knob update per
+   * animation frame.
+   * 
+   * @return true if drag coalescing is enabled
+   */
+  public boolean isDragCoalescing() {
+    return dragCoalescing;
+  }
+
+  /**
+   * Check whether the knob is positioned with CSS transforms.
+   * 
+   * @return true if knob transforms are enabled
+   */
+  public boolean isKnobTransformEnabled() {
+    return knobTransformEnabled;
+  }
+
+  /**
+   * Check whether input to paint latencies are recorded.
+   * 
+   * @return true if latencies are recorded
+   */
+  public boolean isLatencyRecordingEnabled() {
+    return latencyHistogram != null;
+  }
+
+  /**
+   * Time mouse, keyboard and wheel events which may move the knob, so that the
+   * latency until the knob is painted can be recorded.
+   * 
+   * @param event the event that occurred
+   */
+  public void onBrowserEvent(Event event) {
+    if ((latencyHistogram != null) && (latencyInputTime < 0)) {
+      switch (DOM.eventGetType(event)) {
+        case Event.ONMOUSEMOVE:
+          if (!slidingMouse) {
+            break;
+          }
+          // Fall through
+        case Event.ONMOUSEDOWN:
+        case Event.ONKEYDOWN:
+        case Event.ONMOUSEWHEEL:
+          latencyInputTime = now();
+          Scheduler.get().scheduleFinally(latencyCheckCommand);
+          break;
+      }
     }
+    super.onBrowserEvent(event);
   }
 
   /**
@@ -292,8 +714,8 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    */
   public void redraw() {
     if (isAttached()) {
-      int width = DOM.getElementPropertyInt(getElement(), "clientWidth");
-      int height = DOM.getElementPropertyInt(getElement(), "clientHeight");
+      int width = getElementPropertyInt(getElement(), "clientWidth");
+      int height = getElementPropertyInt(getElement(), "clientHeight");
       onResize(width, height);
     }
   }
@@ -320,23 +742,79 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @param fireEvent fire the onValue change event if true
    */
   public void setCurrentValue(double curValue, boolean fireEvent) {
-    // Confine the value to the range
-    this.curValue = Math.max(minValue, Math.min(maxValue, curValue));
-    double remainder = (this.curValue - minValue) % stepSize;
-    this.curValue -= remainder;
+    model.setCurrentValue(curValue, fireEvent);
+    fireValueChangedIfDetached(fireEvent);
+  }
 
-    // Go to next step if more than halfway there
-    if ((remainder > (stepSize / 2))
-        && ((this.curValue + stepSize) <= maxValue)) {
-      this.curValue += stepSize;
+  /**
+   * Set whether mouse drag updates are coalesced. When enabled, only the latest
+   * pointer position received during a frame is applied, once per animation
+   * frame, instead of updating the knob on every mouse move. The final position
+   * is always applied when the drag ends.
+   * 
+   * @param dragCoalescing true to enable drag coalescing
+   */
+  public void setDragCoalescing(boolean dragCoalescing) {
+    this.dragCoalescing = dragCoalescing;
+    if (!dragCoalescing && (dragFrameHandle != null)) {
+      cancelDragFrame();
+      slideKnob(pendingDragPosition);
     }
+  }
 
-    // Redraw the knob
-    drawKnob();
+  /**
+   * Set whether the knob is positioned with a CSS 3D transform instead of its
+   * left or top style attribute. Moving a transformed knob does not invalidate
+   * the layout of the shell. Browsers without 3D transforms fall back to the
+   * left or top style attribute.
+   * 
+   * @param enabled true to position the knob with CSS transforms
+   */
+  public void setKnobTransformEnabled(boolean enabled) {
+    if (enabled != knobTransformEnabled) {
+      if (knobImage != null) {
+        Element knobElement = knobImage.getElement();
+        if (enabled) {
+          getKnobTransformImpl().enable(knobElement, isVertical());
+        } else {
+          getKnobTransformImpl().disable(knobElement, isVertical());
+        }
+      }
+      knobTransformEnabled = enabled;
+      invalidateParts(DRAW_KNOB);
+    }
+  }
 
-    // Fire the onValueChange event
-    if (fireEvent && (sliderListeners != null)) {
-      sliderListeners.fireValueChanged(this, getCurrentValue());
+  /**
+   * Set the current value to a step and optionally fire the onValueChange
+   * event. The step index is confined to the steps within the range. This has
+   * no effect if the step size is not positive.
+   * 
+   * @param stepIndex the index of the step, counted from the minimum value
+   * @param fireEvent fire the onValue change event if true
+   */
+  public void setStepIndex(long stepIndex, boolean fireEvent) {
+    model.setStepIndex(stepIndex, fireEvent);
+    fireValueChangedIfDetached(fireEvent && (model.getStepSize() > 0));
+  }
+
+  /**
+   * Enable or disable the recording of input to paint latencies. While
+   * enabled, the time of each mouse, keyboard or wheel event which moves the
+   * knob is taken with performance.now(), and the latency is recorded in the
+   * first animation frame after the knob is moved, or as the knob is moved in
+   * the animation frame of a coalesced drag. When several events are
+   * painted in the same frame, the latency of the earliest one is recorded.
+   * 
+   * @param enabled true to record latencies
+   * @see #getLatencyHistogram()
+   */
+  public void setLatencyRecordingEnabled(boolean enabled) {
+    if (enabled && (latencyHistogram == null)) {
+      latencyHistogram = new LatencyHistogram();
+    } else if (!enabled) {
+      latencyHistogram = null;
+      cancelLatencyFrame();
     }
   }
 
@@ -349,15 +827,44 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
     this.labelFormatter = labelFormatter;
   }
 
+  /**
+   * Set the minimum distance between the labels shown. When the line is too
+   * short to show every label this far apart, only every 2nd, 5th, 10th,
+   * 20th... label is shown, so that the number of labels drawn depends on the
+   * length of the line rather than on the number of labels. The labels shown
+   * are chosen again when the slider bar is resized.
+   * 
+   * @param minLabelSpacing the minimum distance in pixels, or 0 to show every
+   *          label
+   */
+  public void setMinLabelSpacing(int minLabelSpacing) {
+    this.minLabelSpacing = minLabelSpacing;
+    invalidateParts(DRAW_LABELS);
+  }
+
+  /**
+   * Set the minimum distance between the ticks shown. When the line is too
+   * short to show every tick this far apart, only every 2nd, 5th, 10th,
+   * 20th... tick is shown, so that the number of ticks drawn depends on the
+   * length of the line rather than on the number of ticks. The ticks shown are
+   * chosen again when the slider bar is resized.
+   * 
+   * @param minTickSpacing the minimum distance in pixels, or 0 to show every
+   *          tick
+   */
+  public void setMinTickSpacing(int minTickSpacing) {
+    this.minTickSpacing = minTickSpacing;
+    invalidateParts(DRAW_TICKS);
+  }
+
   /**
    * Set the max value.
    * 
    * @param maxValue the current value
    */
   public void setMaxValue(double maxValue) {
-    this.maxValue = maxValue;
-    drawLabels();
-    resetCurrentValue();
+    model.setMaxValue(maxValue);
+    fireValueChangedIfDetached(true);
   }
 
   /**
@@ -366,9 +873,29 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @param minValue the current value
    */
   public void setMinValue(double minValue) {
-    this.minValue = minValue;
-    drawLabels();
-    resetCurrentValue();
+    model.setMinValue(minValue);
+    fireValueChangedIfDetached(true);
+  }
+
+  /**
+   * Set the model holding the range, step size and current value. Several
+   * slider bars may share a model; each of them is redrawn when it changes.
+   * 
+   * A slider bar only listens to its model while it is attached, so that a
+   * long-lived model does not keep detached slider bars from being garbage
+   * collected. While detached, the slider bar fires onValueChange events for
+   * the changes made through its own methods, but not for the changes made
+   * to a shared model through other views.
+   * 
+   * @param model the model
+   */
+  public void setModel(SliderModel model) {
+    if (modelListening) {
+      this.model.removeChangeListener(modelListener);
+      model.addChangeListener(modelListener);
+    }
+    this.model = model;
+    invalidateParts(DRAW_ALL);
   }
 
   /**
@@ -388,8 +915,7 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @param numLabels the number of labels to show
    */
   public void setNumLabels(int numLabels) {
-    this.numLabels = numLabels;
-    drawLabels();
+    model.setNumLabels(numLabels);
   }
 
   /**
@@ -409,8 +935,7 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @param numTicks the number of ticks to show
    */
   public void setNumTicks(int numTicks) {
-    this.numTicks = numTicks;
-    drawTicks();
+    model.setNumTicks(numTicks);
   }
 
   /**
@@ -419,25 +944,262 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @param stepSize the current value
    */
   public void setStepSize(double stepSize) {
-    this.stepSize = stepSize;
-    resetCurrentValue();
+    model.setStepSize(stepSize);
+    fireValueChangedIfDetached(true);
   }
   
+  /**
+   * Set the tick rendering strategy. With {@link #TICKS_ELEMENTS}, the default,
+   * each tick is an element styled by the -tick CSS rule. With
+   * {@link #TICKS_GRADIENT}, all the ticks are painted, one pixel wide in the
+   * text color, by the repeating-linear-gradient background of a single
+   * element styled by the -ticks CSS rule, so that the cost of drawing the
+   * ticks does not depend on their number. The gradient strategy requires CSS
+   * gradients, and is ignored by slider bars painting onto a canvas.
+   * 
+   * @param tickRendering {@link #TICKS_ELEMENTS} or {@link #TICKS_GRADIENT}
+   */
+  public void setTickRendering(int tickRendering) {
+    this.tickRendering = tickRendering;
+    invalidateParts(DRAW_TICKS);
+  }
+
+  /**
+   * Capture the line and knob geometry used by the draw and drag paths, which
+   * then do not need to read layout.
+   */
+  protected void captureGeometry() {
+    measureGeometry();
+    geometryValid = true;
+  }
+
+  /**
+   * Create the line element, set up {@link #knobImage} and add them to the
+   * shell. This is called when the slider bar is first attached rather than
+   * when it is constructed, so that slider bars that are never shown create no
+   * elements beyond their shell.
+   */
+  protected abstract void buildElements();
+
+  /**
+   * Cancel the pending drag frame, if any, without applying its position.
+   */
+  protected void cancelDragFrame() {
+    if (dragFrameHandle != null) {
+      dragFrameHandle.cancel();
+      dragFrameHandle = null;
+    }
+  }
+
+  /**
+   * Cancel the pending latency frame, if any, and discard the pending input.
+   */
+  private void cancelLatencyFrame() {
+    if (latencyFrameHandle != null) {
+      latencyFrameHandle.cancel();
+      latencyFrameHandle = null;
+    }
+    latencyFrameScheduled = false;
+    latencyInputTime = -1;
+  }
+
+  /**
+   * Move the knob in response to a mouse move while dragging. If drag
+   * coalescing is enabled, the position is applied on the next animation
+   * frame; otherwise it is applied immediately.
+   * 
+   * @param position the client coordinate of the pointer along the line
+   */
+  protected void dragKnob(int position) {
+    if (!dragCoalescing) {
+      slideKnob(position);
+      return;
+    }
+    pendingDragPosition = position;
+    if (dragFrameHandle == null) {
+      dragFrameHandle = AnimationScheduler.get().requestAnimationFrame(
+          dragFrameCallback, getElement());
+    }
+  }
+
+  /**
+   * Create hidden labels from the template of the style base name and append
+   * them to the shell, {@link #labelElements} and {@link #labelTexts}.
+   * 
+   * @param count the number of labels to append
+   */
+  protected void appendLabelElements(int count) {
+    if (DomCounters.isEnabled()) {
+      domCounters.templateClones++;
+      domCounters.elementsCreated += count;
+    }
+    getTemplate().appendLabels(getElement(), count, labelElements);
+    for (int i = 0; i < count; i++) {
+      labelTexts.add(null);
+    }
+  }
+
+  /**
+   * Create hidden ticks from the template of the style base name and append
+   * them to the shell and {@link #tickElements}.
+   * 
+   * @param count the number of ticks to append
+   */
+  protected void appendTickElements(int count) {
+    if (DomCounters.isEnabled()) {
+      domCounters.templateClones++;
+      domCounters.elementsCreated += count;
+    }
+    getTemplate().appendTicks(getElement(), count, tickElements);
+  }
+
+  /**
+   * Create a line element from the template of the style base name.
+   * 
+   * @return the new element
+   */
+  protected Element cloneLineElement() {
+    if (DomCounters.isEnabled()) {
+      domCounters.templateClones++;
+      domCounters.elementsCreated++;
+    }
+    return getTemplate().cloneLine();
+  }
+
+  /**
+   * Create a div element, counting it if counting is enabled.
+   * 
+   * @return the new element
+   */
+  protected Element createDiv() {
+    if (DomCounters.isEnabled()) {
+      domCounters.elementsCreated++;
+    }
+    return DOM.createDiv();
+  }
+
   /**
    * Draw the knob where it is supposed to be relative to the line.
    */
   protected abstract void drawKnob();
 
+  /**
+   * Draw some parts of the slider bar now, along with the parts that need to
+   * be redrawn.
+   * 
+   * @param parts the part flags of the parts to draw
+   */
+  protected void drawParts(int parts) {
+    parts |= dirtyParts;
+    dirtyParts = 0;
+    if (DomCounters.isEnabled() && (parts != 0)) {
+      domCounters.redraws++;
+    }
+    if ((parts & DRAW_LABELS) != 0) {
+      drawLabels();
+    }
+    if ((parts & DRAW_TICKS) != 0) {
+      drawTicks();
+    }
+    if ((parts & DRAW_KNOB) != 0) {
+      drawKnob();
+    }
+  }
+
   /**
    * Draw the labels along the line.
    */
   protected abstract void drawLabels();
 
+  /**
+   * Draw evenly spaced ticks as the repeating gradient background of the tick
+   * strip, or hide the tick strip.
+   * 
+   * @param numTicks the number of slots between the ticks, or 0 to hide the
+   *          tick strip
+   */
+  protected void drawTickStrip(int numTicks) {
+    if (numTicks <= 0) {
+      if (tickStripElement != null) {
+        setStyleAttribute(tickStripElement, "display", "none");
+      }
+      return;
+    }
+
+    // Create the tick strip
+    if (tickStripElement == null) {
+      if (DomCounters.isEnabled()) {
+        domCounters.templateClones++;
+        domCounters.elementsCreated++;
+      }
+      tickStripElement = getTemplate().cloneTickStrip();
+      DOM.appendChild(getElement(), tickStripElement);
+    }
+
+    // Cover the line, including the last tick, with one tick per period
+    double period = (double) lineLength * getTickStride() / numTicks;
+    boolean vertical = isVertical();
+    setStyleAttribute(tickStripElement, vertical ? "top" : "left", lineOffset
+        + "px");
+    setStyleAttribute(tickStripElement, vertical ? "height" : "width",
+        (lineLength + 1) + "px");
+    setStyleAttribute(tickStripElement, "backgroundImage",
+        "repeating-linear-gradient(" + (vertical ? "to bottom" : "to right")
+            + ", currentColor 0px, currentColor 1px, transparent 1px, "
+            + "transparent " + period + "px)");
+    setStyleAttribute(tickStripElement, "display", "");
+  }
+
   /**
    * Draw the tick along the line.
    */
   protected abstract void drawTicks();
 
+  /**
+   * Capture the line and knob geometry if it is not valid.
+   */
+  protected void ensureGeometry() {
+    if (!geometryValid) {
+      captureGeometry();
+    }
+  }
+
+  /**
+   * Fire the onValueChange event for a change made through this slider bar
+   * while it is detached, since the model only notifies attached slider bars.
+   * 
+   * @param fireEvent true if the change should be reported
+   */
+  private void fireValueChangedIfDetached(boolean fireEvent) {
+    if (fireEvent && !modelListening) {
+      modelListener.onModelChanged(model, SliderModel.VALUE, true);
+    }
+  }
+
+  /**
+   * Fire the onStartSliding event, if there are listeners.
+   */
+  protected void fireStartSliding() {
+    if (sliderListeners != null) {
+      if (DomCounters.isEnabled()) {
+        domCounters.listenerDispatches += sliderListeners.size();
+      }
+      sliderListeners.fireStartSliding(this);
+    }
+  }
+
+  /**
+   * Fire the onStopSliding event, if there are listeners.
+   */
+  protected void fireStopSliding() {
+    if (sliderListeners != null) {
+      if (DomCounters.isEnabled()) {
+        domCounters.listenerDispatches += sliderListeners.size();
+      }
+      sliderListeners.fireStopSliding(this);
+    }
+  }
+
   /**
    * Format the label to display above the ticks
    * 
@@ -455,6 +1217,21 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
     }
   }
 
+  /**
+   * Read an integer property of an element, counting the read if counting is
+   * enabled.
+   * 
+   * @param elem the element
+   * @param prop the name of the property
+   * @return the value of the property
+   */
+  protected int getElementPropertyInt(Element elem, String prop) {
+    if (DomCounters.isEnabled()) {
+      domCounters.propertyReads++;
+    }
+    return DOM.getElementPropertyInt(elem, prop);
+  }
+
   /**
    * Get the percentage of the knob's position relative to the size of the line.
    * The return value will be between 0.0 and 1.0.
@@ -462,26 +1239,125 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
    * @return the current percent complete
    */
   protected double getKnobPercent() {
-    // If we have no range
-    if (maxValue <= minValue) {
-      return 0;
+    return model.getKnobPercent();
+  }
+
+  /**
+   * Get the number of label divisions between two labels shown, given the
+   * length of the line as last captured and the minimum label spacing.
+   * 
+   * @return the label stride, 1 to show every label
+   */
+  protected int getLabelStride() {
+    return SliderModel.getMarkStride(model.getNumLabels(), lineLength,
+        minLabelSpacing);
+  }
+
+  /**
+   * Get the number of tick divisions between two ticks shown, given the length
+   * of the line as last captured and the minimum tick spacing.
+   * 
+   * @return the tick stride, 1 to show every tick
+   */
+  protected int getTickStride() {
+    return SliderModel.getMarkStride(model.getNumTicks(), lineLength,
+        minTickSpacing);
+  }
+
+  /**
+   * Mark some parts of the slider bar as needing to be redrawn. The parts are
+   * drawn once at the end of the current event loop, or at the end of the
+   * current batch of updates. Nothing is drawn while detached, since the whole
+   * slider bar is drawn when it is attached.
+   * 
+   * @param parts the part flags of the parts to redraw
+   */
+  protected void invalidateParts(int parts) {
+    if (!isAttached()) {
+      return;
     }
+    dirtyParts |= parts;
+    if ((updateDepth == 0) && !drawScheduled) {
+      drawScheduled = true;
+      Scheduler.get().scheduleFinally(drawCommand);
+    }
+  }
 
-    // Calculate the relative progress
-    double percent = (curValue - minValue) / (maxValue - minValue);
-    return Math.max(0.0, Math.min(1.0, percent));
+  /**
+   * Get the template shared by the slider bars with the same style base name.
+   * 
+   * @return the template
+   */
+  private SliderTemplate getTemplate() {
+    if (template == null) {
+      template = SliderTemplate.get(styleBaseName);
+    }
+    return template;
   }
 
+  /**
+   * Check whether the knob of this slider bar moves vertically.
+   * 
+   * @return true if the slider bar is vertical
+   */
+  protected abstract boolean isVertical();
+
   /**
    * This method is called immediately after a widget becomes attached to the
    * browser's document.
    */
   protected void onLoad() {
+    // Create the line and knob on the first attach
+    if (!elementsBuilt) {
+      elementsBuilt = true;
+      knobImage = new Image();
+      keyTimer = new KeyTimer();
+      buildElements();
+      if (knobTransformEnabled) {
+        getKnobTransformImpl().enable(knobImage.getElement(), isVertical());
+      }
+    }
+
+    // Apply the styles injected since the end of the last event loop
+    StyleInjector.flush();
+
+    // Listen to the model while attached
+    model.addChangeListener(modelListener);
+    modelListening = true;
+
     // Reset the position attribute of the parent element
-    DOM.setStyleAttribute(getElement(), "position", "relative");
+    setStyleAttribute(getElement(), "position", "relative");
+
+    // Make this a resizable widget while it is attached
+    ResizableWidgetCollection.get().add(this);
     redraw();
   }
 
+  /**
+   * This method is called immediately before a widget will be detached from
+   * the browser's document. Detached slider bars are not referenced by the
+   * {@link ResizableWidgetCollection}, so they can be garbage collected. A
+   * slide in progress is stopped, firing the onStopSliding event.
+   */
+  protected void onUnload() {
+    ResizableWidgetCollection.get().remove(this);
+    model.removeChangeListener(modelListener);
+    modelListening = false;
+    keyTimer.cancel();
+    cancelDragFrame();
+    cancelLatencyFrame();
+
+    // End the current slide, as a blur would
+    if (slidingMouse || slidingKeyboard) {
+      if (slidingMouse) {
+        DOM.releaseCapture(getElement());
+      }
+      stopSliding(true, true);
+      slidingMouse = false;
+      slidingKeyboard = false;
+    }
+  }
+
   /**
    * Highlight this widget.
    */
@@ -491,6 +1367,52 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
         + styleName + "-focused");
   }
 
+  /**
+   * Read the dimensions of the line and knob and the position of the line into
+   * {@link #lineLength}, {@link #knobLength} and {@link #lineStart}.
+   */
+  protected abstract void measureGeometry();
+
+  /**
+   * Move the knob to a position along the line.
+   * 
+   * @param offset the offset of the knob from the edge of the shell in pixels
+   */
+  protected void positionKnob(int offset) {
+    Element knobElement = knobImage.getElement();
+    if (knobTransformEnabled) {
+      if (DomCounters.isEnabled()) {
+        domCounters.styleWrites++;
+      }
+      getKnobTransformImpl().setPosition(knobElement, offset, isVertical());
+    } else {
+      setStyleAttribute(knobElement, isVertical() ? "top" : "left", offset
+          + "px");
+    }
+
+    // Record the input latency when the frame painting the knob is sampled
+    if (latencyInputTime >= 0) {
+      if (drawingDragFrame) {
+        // The drag frame callback runs right before the paint
+        recordLatency();
+      } else if (!latencyFrameScheduled) {
+        latencyFrameScheduled = true;
+        latencyFrameHandle = AnimationScheduler.get().requestAnimationFrame(
+            latencyFrameCallback);
+      }
+    }
+  }
+
+  /**
+   * Record the latency of the pending input, if any, and discard it.
+   */
+  private void recordLatency() {
+    if ((latencyHistogram != null) && (latencyInputTime >= 0)) {
+      latencyHistogram.record(now() - latencyInputTime);
+    }
+    latencyInputTime = -1;
+  }
+
   /**
    * Reset the progress to constrain the progress to the current range and
    * redraw the knob as needed.
@@ -499,6 +1421,40 @@ public abstract class SliderBar extends FocusPanel implements ResizableWidget, S
     setCurrentValue(getCurrentValue());
   }
   
+  /**
+   * Set a style attribute of an element, counting the write if counting is
+   * enabled.
+   * 
+   * @param elem the element
+   * @param attr the name of the style attribute
+   * @param value the value of the style attribute
+   */
+  protected void setStyleAttribute(Element elem, String attr, String value) {
+    if (DomCounters.isEnabled()) {
+      domCounters.styleWrites++;
+    }
+    DOM.setStyleAttribute(elem, attr, value);
+  }
+
+  /**
+   * Shift the current value by a number of steps and fire the onValueChange
+   * event.
+   * 
+   * @param numSteps the number of steps to shift, negative to shift toward the
+   *          minimum value
+   */
+  protected void shiftSteps(int numSteps) {
+    model.shiftSteps(numSteps, true);
+    fireValueChangedIfDetached(model.getStepSize() > 0);
+  }
+
+  /**
+   * Slide the knob to the value under a pointer position.
+   * 
+   * @param position the client coordinate of the pointer along the line
+   */
+  protected abstract void slideKnob(int position);
+
   /**
    * Start sliding the knob.
    * 
@@ -0,0 +1,279 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.canvas.client.Canvas;
+import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.canvas.dom.client.Context2d.TextBaseline;
+import com.google.gwt.dom.client.CanvasElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+
+/**
+ * Paints the line, ticks and labels of a slider bar onto a single canvas, so
+ * that the number of elements, and the cost of a redraw, do not grow with the
+ * number of ticks and labels. The knob remains an element of its own.
+ * 
+ * The colors, sizes and positions are taken from the CSS rules of the slider
+ * bar: the line element is kept, hidden, to be measured and styled, and one
+ * hidden tick and one hidden label are kept as probes. Labels are painted as
+ * plain text.
+ */
+class SliderCanvasRenderer {
+  /**
+   * Check whether the browser supports canvas rendering.
+   * 
+   * @return true if canvas rendering is supported
+   */
+  public static boolean isSupported() {
+    return Canvas.isSupported();
+  }
+
+  /**
+   * Get the computed value of a style property.
+   * 
+   * @param elem the element
+   * @param prop the name of the style property, in camel case
+   * @return the computed value
+   */
+  private static native String getComputedStyle(Element elem, String prop) /*-{
+    return $wnd.getComputedStyle(elem, null)[prop] || "";
+  }-*/;
+
+  /**
+   * Get the ratio between physical and CSS pixels.
+   * 
+   * @return the device pixel ratio
+   */
+  private static native double getDevicePixelRatio() /*-{
+    return $wnd.devicePixelRatio || 1;
+  }-*/;
+
+  /**
+   * The canvas element.
+   */
+  private final Element canvas;
+
+  /**
+   * The height of the canvas in CSS pixels.
+   */
+  private int canvasHeight = -1;
+
+  /**
+   * The width of the canvas in CSS pixels.
+   */
+  private int canvasWidth = -1;
+
+  /**
+   * The context used to paint the canvas.
+   */
+  private final Context2d context;
+
+  /**
+   * The hidden label used to read the label style.
+   */
+  private final Element labelProbe;
+
+  /**
+   * The device pixel ratio the canvas was sized for.
+   */
+  private double pixelRatio = 1;
+
+  /**
+   * The slider bar painted by this renderer.
+   */
+  private final SliderBar slider;
+
+  /**
+   * The hidden tick used to read the tick style.
+   */
+  private final Element tickProbe;
+
+  /**
+   * Create a renderer and add its canvas beneath the knob of a slider bar.
+   * 
+   * @param slider the slider bar to paint
+   */
+  public SliderCanvasRenderer(SliderBar slider) {
+    this.slider = slider;
+    Element shell = slider.getElement();
+
+    // Create the canvas under the other elements
+    CanvasElement canvasElement = Document.get().createCanvasElement();
+    context = canvasElement.getContext2d();
+    canvas = (Element) canvasElement.cast();
+    slider.setStyleAttribute(canvas, "position", "absolute");
+    slider.setStyleAttribute(canvas, "left", "0px");
+    slider.setStyleAttribute(canvas, "top", "0px");
+    DOM.insertChild(shell, canvas, 0);
+
+    // Keep the line for layout, but paint it on the canvas
+    slider.setStyleAttribute(slider.lineElement, "visibility", "hidden");
+
+    // Create the probes
+    tickProbe = createProbe(slider.styleBaseName + "-tick");
+    labelProbe = createProbe(slider.styleBaseName + "-label");
+    DOM.setElementProperty(labelProbe, "innerHTML", "0");
+  }
+
+  /**
+   * Paint the line, ticks and labels.
+   */
+  public void paint() {
+    slider.ensureGeometry();
+    resize();
+    context.setTransform(pixelRatio, 0, 0, pixelRatio, 0, 0);
+    context.clearRect(0, 0, canvasWidth, canvasHeight);
+    paintLine();
+    paintTicks();
+    paintLabels();
+  }
+
+  /**
+   * Create a hidden element styled like the marks of the slider bar.
+   * 
+   * @param className the CSS class name of the element
+   * @return the new element
+   */
+  private Element createProbe(String className) {
+    Element probe = slider.createDiv();
+    slider.setStyleAttribute(probe, "position", "absolute");
+    slider.setStyleAttribute(probe, "visibility", "hidden");
+    DOM.setElementProperty(probe, "className", className);
+    DOM.appendChild(slider.getElement(), probe);
+    return probe;
+  }
+
+  /**
+   * Get the computed font of an element.
+   * 
+   * @param elem the element
+   * @return the font, in the syntax of the canvas font property
+   */
+  private String getFont(Element elem) {
+    return getComputedStyle(elem, "fontStyle") + " "
+        + getComputedStyle(elem, "fontWeight") + " "
+        + getComputedStyle(elem, "fontSize") + " "
+        + getComputedStyle(elem, "fontFamily");
+  }
+
+  /**
+   * Paint the labels.
+   */
+  private void paintLabels() {
+    SliderModel model = slider.model;
+    int numLabels = model.getNumLabels();
+    if (numLabels <= 0) {
+      return;
+    }
+
+    context.setFont(getFont(labelProbe));
+    context.setFillStyle(getComputedStyle(labelProbe, "color"));
+    context.setTextBaseline(TextBaseline.TOP);
+    boolean vertical = slider.isVertical();
+    int labelLeft = slider.getElementPropertyInt(labelProbe, "offsetLeft");
+    int labelTop = slider.getElementPropertyInt(labelProbe, "offsetTop");
+    int labelHeight = slider.getElementPropertyInt(labelProbe, "offsetHeight");
+    int stride = slider.getLabelStride();
+    for (int i = 0; i <= numLabels; i += stride) {
+      String text = slider.formatLabel(model.getLabelValue(i));
+      if (vertical) {
+        int labelTopOffset = model.getLabelOffset(i, slider.lineOffset,
+            slider.lineLength, labelHeight);
+        context.fillText(text, labelLeft, labelTopOffset);
+      } else {
+        int labelWidth = (int) Math.ceil(context.measureText(text).getWidth());
+        int labelLeftOffset = model.getLabelOffset(i, slider.lineOffset,
+            slider.lineLength, labelWidth);
+        context.fillText(text, labelLeftOffset, labelTop);
+      }
+    }
+  }
+
+  /**
+   * Paint the line with its border.
+   */
+  private void paintLine() {
+    Element line = slider.lineElement;
+    int x = slider.getElementPropertyInt(line, "offsetLeft");
+    int y = slider.getElementPropertyInt(line, "offsetTop");
+    int width = slider.getElementPropertyInt(line, "offsetWidth");
+    int height = slider.getElementPropertyInt(line, "offsetHeight");
+    double border = parsePixels(getComputedStyle(line, "borderTopWidth"));
+    if (border > 0) {
+      context.setFillStyle(getComputedStyle(line, "borderTopColor"));
+      context.fillRect(x, y, width, height);
+    }
+    context.setFillStyle(getComputedStyle(line, "backgroundColor"));
+    context.fillRect(x + border, y + border, width - 2 * border, height - 2
+        * border);
+  }
+
+  /**
+   * Paint the ticks.
+   */
+  private void paintTicks() {
+    SliderModel model = slider.model;
+    int numTicks = model.getNumTicks();
+    if (numTicks <= 0) {
+      return;
+    }
+
+    context.setFillStyle(getComputedStyle(tickProbe, "backgroundColor"));
+    boolean vertical = slider.isVertical();
+    int tickLeft = slider.getElementPropertyInt(tickProbe, "offsetLeft");
+    int tickTop = slider.getElementPropertyInt(tickProbe, "offsetTop");
+    int tickWidth = slider.getElementPropertyInt(tickProbe, "offsetWidth");
+    int tickHeight = slider.getElementPropertyInt(tickProbe, "offsetHeight");
+    int stride = slider.getTickStride();
+    for (int i = 0; i <= numTicks; i += stride) {
+      if (vertical) {
+        int tickTopOffset = model.getTickOffset(i, slider.lineOffset,
+            slider.lineLength, tickHeight);
+        context.fillRect(tickLeft, tickTopOffset, tickWidth, tickHeight);
+      } else {
+        int tickLeftOffset = model.getTickOffset(i, slider.lineOffset,
+            slider.lineLength, tickWidth);
+        context.fillRect(tickLeftOffset, tickTop, tickWidth, tickHeight);
+      }
+    }
+  }
+
+  /**
+   * Parse a length in pixels.
+   * 
+   * @param value the length, such as "1px"
+   * @return the length in pixels, or 0 if it cannot be parsed
+   */
+  private double parsePixels(String value) {
+    if (value.endsWith("px")) {
+      try {
+        return Double.parseDouble(value.substring(0, value.length() - 2));
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Size the canvas to cover the client area of the slider bar, with one
+   * canvas pixel per physical pixel.
+   */
+  private void resize() {
+    Element shell = slider.getElement();
+    int width = slider.getElementPropertyInt(shell, "clientWidth");
+    int height = slider.getElementPropertyInt(shell, "clientHeight");
+    double ratio = getDevicePixelRatio();
+    if ((width != canvasWidth) || (height != canvasHeight)
+        || (ratio != pixelRatio)) {
+      canvasWidth = width;
+      canvasHeight = height;
+      pixelRatio = ratio;
+      DOM.setElementPropertyInt(canvas, "width", (int) Math.ceil(width * ratio));
+      DOM.setElementPropertyInt(canvas, "height",
+          (int) Math.ceil(height * ratio));
+      slider.setStyleAttribute(canvas, "width", width + "px");
+      slider.setStyleAttribute(canvas, "height", height + "px");
+    }
+  }
+}
@@ -0,0 +1,625 @@
+package com.google.gwt.widgetideas.client;
+
+import java.util.ArrayList;
+import java.util.EventListener;
+import java.util.List;
+
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.AbsolutePanel;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.widgetideas.client.SliderBar.LabelFormatter;
+
+/**
+ * A scrolling list of a large number of values, each shown as a
+ * {@link HSliderBar}. The values are kept in a double array, and slider bars
+ * are only created for the rows in view, so the cost of the list depends on
+ * the height of the list rather than on the number of values. As the list is
+ * scrolled, the slider bars of the rows scrolled out of view are moved to the
+ * rows scrolled into view and bound to their values.
+ * 
+ * All the values share the same range, step size, labels and ticks. Values are
+ * only confined to the range until a step size is set, after which they are
+ * snapped to the steps. The list must be given a height, and the mouse wheel
+ * scrolls the list rather than shifting the values.
+ * 
+ * <h3>CSS Style Rules</h3>
+ * <ul class="css">
+ * <li>.gwt-SliderList { the scrolling list }</li>
+ * <li>.gwt-SliderList-content { the element as tall as all the rows }</li>
+ * <li>.gwt-SliderList-row { each slider bar }</li>
+ * </ul>
+ */
+public class SliderList extends ScrollPanel implements ResizableWidget {
+  /**
+   * A listener for the values changed by the user.
+   */
+  public interface ValueListener extends EventListener {
+    /**
+     * This event is fired when the user changes a value.
+     * 
+     * @param list the list sending the event
+     * @param index the index of the value
+     * @param curValue the new value
+     */
+    public void onValueChanged(SliderList list, int index, double curValue);
+  }
+
+  /**
+   * A pooled slider bar and the index of the value it is bound to.
+   */
+  private class Row extends SliderListenerAdapter {
+    /**
+     * The index of the value shown by the slider bar, or -1 if none.
+     */
+    private int index = -1;
+
+    /**
+     * The slider bar.
+     */
+    private final HSliderBar slider;
+
+    /**
+     * A bit indicating whether the user is sliding the slider bar, during
+     * which it is not bound to another value.
+     */
+    private boolean sliding = false;
+
+    public Row() {
+      slider = new HSliderBar(minValue, maxValue, labelFormatter, null,
+          sliderStyleBaseName);
+      slider.setStepSize(stepSize);
+      slider.setNumLabels(numLabels);
+      slider.setNumTicks(numTicks);
+      slider.addStyleName(styleBaseName + "-row");
+      slider.setWidth("100%");
+      slider.setHeight(rowHeight + "px");
+      slider.addSliderListener(this);
+
+      // Let the mouse wheel scroll the list rather than shift the values
+      slider.unsinkEvents(Event.ONMOUSEWHEEL);
+    }
+
+    public void onStartSliding(SliderBar slider) {
+      sliding = true;
+    }
+
+    public void onStopSliding(SliderBar slider) {
+      sliding = false;
+
+      // Bind the rows skipped while sliding, including this one
+      bindRows(true);
+    }
+
+    public void onValueChanged(SliderBar slider, double curValue) {
+      if (!updatingRows && (index >= 0) && (index < valueCount)) {
+        values[index] = curValue;
+        fireValueChanged(index, curValue);
+      }
+    }
+
+    /**
+     * Bind the slider bar to a value, or hide it.
+     * 
+     * @param index the index of the value, or -1 to hide the slider bar
+     */
+    private void bind(int index) {
+      this.index = index;
+      if (index < 0) {
+        slider.setVisible(false);
+        return;
+      }
+      content.setWidgetPosition(slider, 0, index * rowHeight);
+      slider.setCurrentValue(values[index], false);
+      slider.setVisible(true);
+    }
+  }
+
+  /**
+   * The number of rows above and below the visible rows that are kept bound,
+   * so that slow scrolling does not show empty rows.
+   */
+  private static final int OVERSCAN_ROWS = 2;
+
+  /**
+   * The panel holding the slider bars, as tall as all the rows.
+   */
+  private final AbsolutePanel content = new AbsolutePanel();
+
+  /**
+   * The label formatter of the slider bars.
+   */
+  private LabelFormatter labelFormatter;
+
+  /**
+   * The maximum value.
+   */
+  private double maxValue;
+
+  /**
+   * The minimum value.
+   */
+  private double minValue;
+
+  /**
+   * The number of labels of the slider bars.
+   */
+  private int numLabels = 0;
+
+  /**
+   * The number of ticks of the slider bars.
+   */
+  private int numTicks = 0;
+
+  /**
+   * The rows, the row of value i being rows[i % rows.length].
+   */
+  private Row[] rows = new Row[0];
+
+  /**
+   * The height of a row in pixels.
+   */
+  private final int rowHeight;
+
+  /**
+   * The base name of the CSS style names of the slider bars.
+   */
+  private final String sliderStyleBaseName;
+
+  /**
+   * The step size of the slider bars, or 0 for none.
+   */
+  private double stepSize = 0;
+
+  /**
+   * The base name from which CSS style names for the list are derived.
+   */
+  private final String styleBaseName;
+
+  /**
+   * The listeners for value changes.
+   */
+  private final List/* <ValueListener> */valueListeners = new ArrayList/* <ValueListener> */();
+
+  /**
+   * A bit indicating whether the list is changing the slider bars, so that the
+   * value changes they report are not taken as changes by the user.
+   */
+  private boolean updatingRows = false;
+
+  /**
+   * The number of values.
+   */
+  private int valueCount;
+
+  /**
+   * The model with the range and step size of the slider bars, used to
+   * quantize the values as the slider bars do.
+   */
+  private final SliderModel valueModel;
+
+  /**
+   * The values, of which the first valueCount are used.
+   */
+  private double[] values;
+
+  /**
+   * Create a list. The values are not snapped to steps until a step size is
+   * set with {@link #setStepSize(double)}.
+   * 
+   * @param valueCount the number of values, initially set to the minimum
+   *          value
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   * @param rowHeight the height of a row in pixels
+   */
+  public SliderList(int valueCount, double minValue, double maxValue,
+      int rowHeight) {
+    this(valueCount, minValue, maxValue, rowHeight, null, "gwt-SliderList",
+        "gwt-HSliderBar");
+  }
+
+  /**
+   * Create a list. The values are not snapped to steps until a step size is
+   * set with {@link #setStepSize(double)}.
+   * 
+   * @param valueCount the number of values, initially set to the minimum
+   *          value
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   * @param rowHeight the height of a row in pixels
+   * @param labelFormatter the label formatter of the slider bars
+   * @param styleBaseName the base name from which CSS style names for the list
+   *          are derived
+   * @param sliderStyleBaseName the base name from which CSS style names for
+   *          the slider bars are derived
+   */
+  public SliderList(int valueCount, double minValue, double maxValue,
+      int rowHeight, LabelFormatter labelFormatter, String styleBaseName,
+      String sliderStyleBaseName) {
+    this.minValue = minValue;
+    this.maxValue = maxValue;
+    this.valueModel = new SliderModel(minValue, maxValue);
+    this.rowHeight = rowHeight;
+    this.labelFormatter = labelFormatter;
+    this.styleBaseName = styleBaseName;
+    this.sliderStyleBaseName = sliderStyleBaseName;
+    this.valueCount = valueCount;
+    values = new double[valueCount];
+    for (int i = 0; i < valueCount; i++) {
+      values[i] = minValue;
+    }
+
+    setStyleName(styleBaseName);
+    content.setStyleName(styleBaseName + "-content");
+    content.setHeight((valueCount * rowHeight) + "px");
+    setWidget(content);
+    sinkEvents(Event.ONSCROLL);
+  }
+
+  /**
+   * Add a listener for the values changed by the user.
+   * 
+   * @param listener the listener
+   */
+  public void addValueListener(ValueListener listener) {
+    valueListeners.add(listener);
+  }
+
+  /**
+   * Get the maximum value.
+   * 
+   * @return the maximum value
+   */
+  public double getMaxValue() {
+    return maxValue;
+  }
+
+  /**
+   * Get the label formatter of the slider bars.
+   * 
+   * @return the label formatter
+   */
+  public LabelFormatter getLabelFormatter() {
+    return labelFormatter;
+  }
+
+  /**
+   * Get the minimum value.
+   * 
+   * @return the minimum value
+   */
+  public double getMinValue() {
+    return minValue;
+  }
+
+  /**
+   * Get the number of slider bars created for the rows in view.
+   * 
+   * @return the number of slider bars
+   */
+  public int getPoolSize() {
+    return rows.length;
+  }
+
+  /**
+   * Get the step size of the slider bars.
+   * 
+   * @return the step size, or 0 if values are not snapped to steps
+   */
+  public double getStepSize() {
+    return stepSize;
+  }
+
+  /**
+   * Get the height of a row.
+   * 
+   * @return the height in pixels
+   */
+  public int getRowHeight() {
+    return rowHeight;
+  }
+
+  /**
+   * Get a value.
+   * 
+   * @param index the index of the value
+   * @return the value
+   */
+  public double getValue(int index) {
+    checkIndex(index);
+    return values[index];
+  }
+
+  /**
+   * Get the number of values.
+   * 
+   * @return the number of values
+   */
+  public int getValueCount() {
+    return valueCount;
+  }
+
+  /**
+   * Copy the values into an array.
+   * 
+   * @param dest the array receiving the values, or null to allocate one
+   * @return the array holding the values
+   */
+  public double[] getValues(double[] dest) {
+    if ((dest == null) || (dest.length < valueCount)) {
+      dest = new double[valueCount];
+    }
+    System.arraycopy(values, 0, dest, 0, valueCount);
+    return dest;
+  }
+
+  /**
+   * Bind the rows scrolled into view.
+   * 
+   * @param event the event that occurred
+   */
+  public void onBrowserEvent(Event event) {
+    super.onBrowserEvent(event);
+    if (DOM.eventGetType(event) == Event.ONSCROLL) {
+      bindRows(false);
+    }
+  }
+
+  /**
+   * Size the pool of slider bars to the height of the list and bind the rows
+   * in view.
+   * 
+   * @param width the new client width of the element
+   * @param height the new client height of the element
+   */
+  public void onResize(int width, int height) {
+    int poolSize = Math.min(valueCount, (height + rowHeight - 1) / rowHeight
+        + 1 + 2 * OVERSCAN_ROWS);
+    if (poolSize != rows.length) {
+      Row[] newRows = new Row[poolSize];
+      int numKept = Math.min(poolSize, rows.length);
+      System.arraycopy(rows, 0, newRows, 0, numKept);
+      for (int i = numKept; i < poolSize; i++) {
+        newRows[i] = new Row();
+        content.add(newRows[i].slider, 0, 0);
+      }
+
+      // Replace the rows before removing any, since removing a row the user
+      // is sliding ends the slide, which binds the rows
+      Row[] oldRows = rows;
+      rows = newRows;
+      for (int i = numKept; i < oldRows.length; i++) {
+        content.remove(oldRows[i].slider);
+      }
+      bindRows(true);
+    } else {
+      bindRows(false);
+    }
+  }
+
+  /**
+   * Remove a listener for the values changed by the user.
+   * 
+   * @param listener the listener
+   */
+  public void removeValueListener(ValueListener listener) {
+    valueListeners.remove(listener);
+  }
+
+  /**
+   * Set the label formatter of the slider bars.
+   * 
+   * @param labelFormatter the label formatter
+   */
+  public void setLabelFormatter(LabelFormatter labelFormatter) {
+    this.labelFormatter = labelFormatter;
+    for (int i = 0; i < rows.length; i++) {
+      rows[i].slider.setLabelFormatter(labelFormatter);
+    }
+  }
+
+  /**
+   * Set the maximum value. All the values are confined to the new range.
+   * Value listeners are not notified.
+   * 
+   * @param maxValue the maximum value
+   */
+  public void setMaxValue(double maxValue) {
+    this.maxValue = maxValue;
+    valueModel.setMaxValue(maxValue);
+    updateRows();
+  }
+
+  /**
+   * Set the minimum value. All the values are confined to the new range.
+   * Value listeners are not notified.
+   * 
+   * @param minValue the minimum value
+   */
+  public void setMinValue(double minValue) {
+    this.minValue = minValue;
+    valueModel.setMinValue(minValue);
+    updateRows();
+  }
+
+  /**
+   * Set the number of labels of the slider bars.
+   * 
+   * @param numLabels the number of labels
+   */
+  public void setNumLabels(int numLabels) {
+    this.numLabels = numLabels;
+    for (int i = 0; i < rows.length; i++) {
+      rows[i].slider.setNumLabels(numLabels);
+    }
+  }
+
+  /**
+   * Set the number of ticks of the slider bars.
+   * 
+   * @param numTicks the number of ticks
+   */
+  public void setNumTicks(int numTicks) {
+    this.numTicks = numTicks;
+    for (int i = 0; i < rows.length; i++) {
+      rows[i].slider.setNumTicks(numTicks);
+    }
+  }
+
+  /**
+   * Set the step size of the slider bars. All the values are snapped to the
+   * new steps. Value listeners are not notified.
+   * 
+   * @param stepSize the step size, or 0 to stop snapping values to steps
+   */
+  public void setStepSize(double stepSize) {
+    this.stepSize = stepSize;
+    valueModel.setStepSize(stepSize);
+    updateRows();
+  }
+
+  /**
+   * Set a value. The value is snapped to the nearest step within the range,
+   * and shown if its row is in view. Value listeners are not notified.
+   * 
+   * @param index the index of the value
+   * @param curValue the new value
+   */
+  public void setValue(int index, double curValue) {
+    checkIndex(index);
+    values[index] = quantize(curValue);
+    Row row = (rows.length > 0) ? rows[index % rows.length] : null;
+    if ((row != null) && (row.index == index)) {
+      row.slider.setCurrentValue(values[index], false);
+    }
+  }
+
+  /**
+   * Replace all the values, which may change the number of values. The values
+   * are copied and snapped to the nearest step within the range. Value
+   * listeners are not notified.
+   * 
+   * @param newValues the new values
+   */
+  public void setValues(double[] newValues) {
+    if (newValues.length > values.length) {
+      values = new double[newValues.length];
+    }
+    for (int i = 0; i < newValues.length; i++) {
+      values[i] = quantize(newValues[i]);
+    }
+    if (newValues.length != valueCount) {
+      valueCount = newValues.length;
+      content.setHeight((valueCount * rowHeight) + "px");
+      redraw();
+    } else {
+      bindRows(true);
+    }
+  }
+
+  /**
+   * Resize the pool of slider bars and bind the rows in view.
+   */
+  public void redraw() {
+    if (isAttached()) {
+      onResize(DOM.getElementPropertyInt(getElement(), "clientWidth"),
+          DOM.getElementPropertyInt(getElement(), "clientHeight"));
+    }
+  }
+
+  /**
+   * Register the list for resize checks and create the slider bars in view.
+   */
+  protected void onLoad() {
+    ResizableWidgetCollection.get().add(this);
+    redraw();
+  }
+
+  /**
+   * Unregister the list from resize checks.
+   */
+  protected void onUnload() {
+    ResizableWidgetCollection.get().remove(this);
+  }
+
+  /**
+   * Bind the rows in view, and the overscan rows around them, to their values.
+   * A row the user is sliding keeps its value until the slide ends.
+   * 
+   * @param force true to rebind rows already bound to the right value
+   */
+  private void bindRows(boolean force) {
+    int poolSize = rows.length;
+    if (poolSize == 0) {
+      return;
+    }
+    int first = getVerticalScrollPosition() / rowHeight - OVERSCAN_ROWS;
+    first = Math.max(0, Math.min(first, valueCount - poolSize));
+    for (int i = first; i < first + poolSize; i++) {
+      Row row = rows[i % poolSize];
+      if (!row.sliding && (force || (row.index != i))) {
+        row.bind((i < valueCount) ? i : -1);
+      }
+    }
+  }
+
+  /**
+   * Check that an index refers to a value.
+   * 
+   * @param index the index
+   */
+  private void checkIndex(int index) {
+    if ((index < 0) || (index >= valueCount)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+          + valueCount);
+    }
+  }
+
+  /**
+   * Quantize all the values and give the slider bars the range and step size
+   * of the list. The value changes the slider bars report meanwhile are not
+   * passed to the value listeners.
+   */
+  private void updateRows() {
+    for (int i = 0; i < valueCount; i++) {
+      values[i] = quantize(values[i]);
+    }
+    updatingRows = true;
+    try {
+      for (int i = 0; i < rows.length; i++) {
+        HSliderBar slider = rows[i].slider;
+        slider.setMinValue(minValue);
+        slider.setMaxValue(maxValue);
+        slider.setStepSize(stepSize);
+      }
+    } finally {
+      updatingRows = false;
+    }
+    bindRows(true);
+  }
+
+  /**
+   * Snap a value to the nearest step within the range, as the slider bars do.
+   * 
+   * @param value the value
+   * @return the quantized value
+   */
+  private double quantize(double value) {
+    valueModel.setCurrentValue(value, false);
+    return valueModel.getCurrentValue();
+  }
+
+  /**
+   * Fire a value change to the listeners.
+   * 
+   * @param index the index of the value
+   * @param curValue the new value
+   */
+  private void fireValueChanged(int index, double curValue) {
+    for (int i = 0; i < valueListeners.size(); i++) {
+      ((ValueListener) valueListeners.get(i)).onValueChanged(this, index,
+          curValue);
+    }
+  }
+}
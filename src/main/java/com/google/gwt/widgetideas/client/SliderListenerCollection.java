@@ -1,45 +1,351 @@
 package com.google.gwt.widgetideas.client;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.AbstractList;
 
 /**
- * A helper class for implementers of the SourcesSliderEvents interface. This
- * subclass of {@link ArrayList} assumes that all objects added to it will be of
- * type {@link com.google.gwt.widgetideas.client.SliderListener}.
+ * A helper class for implementers of the SourcesSliderEvents interface. The
+ * listeners are kept in an array that is replaced, never modified, when a
+ * listener is added or removed. Events are therefore dispatched without
+ * allocating, and listeners may be added or removed while an event is being
+ * dispatched; such changes take effect from the next event.
+ * 
+ * The collection is a list of {@link SliderListener}, in which a listener
+ * added with a filter appears as itself.
  */
-public class SliderListenerCollection extends ArrayList {
+public class SliderListenerCollection extends AbstractList/* <SliderListener> */{
+  /**
+   * A listener that forwards the value changes accepted by a
+   * {@link ValueChangeFilter} to another listener.
+   */
+  private static class FilteredSliderListener implements SliderListener {
+    /**
+     * The filter applied to value changes.
+     */
+    private final ValueChangeFilter filter;
+
+    /**
+     * A bit indicating whether a value has been delivered yet.
+     */
+    private boolean hasDelivered = false;
+
+    /**
+     * The last delivered value.
+     */
+    private double lastValue;
+
+    /**
+     * The time of the last delivery in milliseconds.
+     */
+    private long lastTime;
+
+    /**
+     * The listener receiving the filtered events.
+     */
+    private final SliderListener listener;
+
+    /**
+     * A bit indicating whether a filtered out value is waiting for the slider
+     * to settle.
+     */
+    private boolean pending = false;
+
+    /**
+     * The latest filtered out value.
+     */
+    private double pendingValue;
+
+    /**
+     * A bit indicating whether the slider is sliding.
+     */
+    private boolean sliding = false;
+
+    public FilteredSliderListener(SliderListener listener,
+        ValueChangeFilter filter) {
+      this.listener = listener;
+      this.filter = filter;
+    }
+
+    public void onStartSliding(SliderBar slider) {
+      sliding = true;
+      listener.onStartSliding(slider);
+    }
+
+    public void onStopSliding(SliderBar slider) {
+      sliding = false;
+
+      // Deliver the settled value if it was filtered out
+      if (pending) {
+        pending = false;
+        if (!hasDelivered || (pendingValue != lastValue)) {
+          deliver(slider, pendingValue);
+        }
+      }
+      listener.onStopSliding(slider);
+    }
+
+    public void onValueChanged(SliderBar slider, double curValue) {
+      if (sliding && !accept(curValue)) {
+        pending = true;
+        pendingValue = curValue;
+      } else {
+        deliver(slider, curValue);
+      }
+    }
+
+    /**
+     * Check whether a value changed while sliding passes the filter.
+     * 
+     * @param curValue the new value
+     * @return true if the value should be delivered now
+     */
+    private boolean accept(double curValue) {
+      if (filter.isSettledOnly()) {
+        return false;
+      }
+      if (!hasDelivered) {
+        return true;
+      }
+      if (Math.abs(curValue - lastValue) < filter.getMinDelta()) {
+        return false;
+      }
+      return (filter.getMinInterval() <= 0)
+          || (System.currentTimeMillis() - lastTime >= filter.getMinInterval());
+    }
+
+    /**
+     * Deliver a value to the listener.
+     * 
+     * @param slider the widget sending the event
+     * @param curValue the value to deliver
+     */
+    private void deliver(SliderBar slider, double curValue) {
+      pending = false;
+      hasDelivered = true;
+      lastValue = curValue;
+      if (filter.getMinInterval() > 0) {
+        lastTime = System.currentTimeMillis();
+      }
+      listener.onValueChanged(slider, curValue);
+    }
+  }
+
+  /**
+   * The array shared by all empty collections.
+   */
+  private static final SliderListener[] NO_LISTENERS = new SliderListener[0];
+
+  /**
+   * The current listeners.
+   */
+  private SliderListener[] listeners = NO_LISTENERS;
+
+  /**
+   * Adds a listener to the collection.
+   * 
+   * @param listener the listener to add
+   */
+  public void add(SliderListener listener) {
+    add(listeners.length, listener);
+  }
+
+  /**
+   * Inserts a listener in the collection.
+   * 
+   * @param index the index at which to insert the listener
+   * @param element the {@link SliderListener} to insert
+   */
+  public void add(int index, Object element) {
+    SliderListener listener = (SliderListener) element;
+    if ((index < 0) || (index > listeners.length)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+          + listeners.length);
+    }
+    SliderListener[] newListeners = new SliderListener[listeners.length + 1];
+    System.arraycopy(listeners, 0, newListeners, 0, index);
+    newListeners[index] = listener;
+    System.arraycopy(listeners, index, newListeners, index + 1,
+        listeners.length - index);
+    listeners = newListeners;
+    modCount++;
+  }
+
+  /**
+   * Adds a listener to the collection, which only receives the value changes
+   * accepted by a filter. The filtering is done by the collection, so the
+   * value changes that are filtered out never reach the listener.
+   * 
+   * @param listener the listener to add
+   * @param filter the filter applied to value changes
+   */
+  public void add(SliderListener listener, ValueChangeFilter filter) {
+    add(new FilteredSliderListener(listener, filter));
+  }
+
+  /**
+   * Removes all the listeners from the collection.
+   */
+  public void clear() {
+    listeners = NO_LISTENERS;
+    modCount++;
+  }
+
   /**
    * Fires a startSliding event to all listeners.
    * 
-   * @param sender the widget sending the event.
+   * @param slider the widget sending the event.
    */
   public void fireStartSliding(SliderBar slider) {
-    for (Iterator it = iterator(); it.hasNext();) {
-      SliderListener listener = (SliderListener) it.next();
-      listener.onStartSliding(slider);
+    SliderListener[] snapshot = listeners;
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i].onStartSliding(slider);
     }
   }
+
   /**
    * Fires a stopSliding event to all listeners.
    * 
-   * @param sender the widget sending the event.
+   * @param slider the widget sending the event.
    */
   public void fireStopSliding(SliderBar slider) {
-    for (Iterator it = iterator(); it.hasNext();) {
-      SliderListener listener = (SliderListener) it.next();
-      listener.onStopSliding(slider);
+    SliderListener[] snapshot = listeners;
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i].onStopSliding(slider);
     }
   }
+
   /**
    * Fires a valueChanged event to all listeners.
    * 
-   * @param sender the widget sending the event.
+   * @param slider the widget sending the event.
+   * @param curValue the current value
    */
   public void fireValueChanged(SliderBar slider, double curValue) {
-    for (Iterator it = iterator(); it.hasNext();) {
-      SliderListener listener = (SliderListener) it.next();
-      listener.onValueChanged(slider, curValue);
+    SliderListener[] snapshot = listeners;
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i].onValueChanged(slider, curValue);
+    }
+  }
+
+  /**
+   * Returns a listener of the collection. A listener added with a filter is
+   * returned as itself.
+   * 
+   * @param index the index of the listener
+   * @return the listener
+   */
+  public Object get(int index) {
+    return unwrap(listeners[checkIndex(index)]);
+  }
+
+  /**
+   * Check whether the collection contains no listeners.
+   * 
+   * @return true if there are no listeners
+   */
+  public boolean isEmpty() {
+    return listeners.length == 0;
+  }
+
+  /**
+   * Removes the first occurrence of a listener from the collection, whether it
+   * was added with or without a filter.
+   * 
+   * @param listener the listener to remove
+   * @return true if the listener was found
+   */
+  public boolean remove(SliderListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (unwrap(listeners[i]) == listener) {
+        remove(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes the first occurrence of a listener from the collection, whether it
+   * was added with or without a filter.
+   * 
+   * @param listener the {@link SliderListener} to remove
+   * @return true if the listener was found
+   */
+  public boolean remove(Object listener) {
+    return (listener instanceof SliderListener)
+        && remove((SliderListener) listener);
+  }
+
+  /**
+   * Removes a listener from the collection.
+   * 
+   * @param index the index of the listener
+   * @return the removed listener
+   */
+  public Object remove(int index) {
+    SliderListener removed = listeners[checkIndex(index)];
+    if (listeners.length == 1) {
+      listeners = NO_LISTENERS;
+    } else {
+      SliderListener[] newListeners = new SliderListener[listeners.length - 1];
+      System.arraycopy(listeners, 0, newListeners, 0, index);
+      System.arraycopy(listeners, index + 1, newListeners, index,
+          newListeners.length - index);
+      listeners = newListeners;
+    }
+    modCount++;
+    return unwrap(removed);
+  }
+
+  /**
+   * Replaces a listener of the collection.
+   * 
+   * @param index the index of the listener
+   * @param element the new {@link SliderListener}
+   * @return the replaced listener
+   */
+  public Object set(int index, Object element) {
+    SliderListener listener = (SliderListener) element;
+    SliderListener replaced = listeners[checkIndex(index)];
+    SliderListener[] newListeners = new SliderListener[listeners.length];
+    System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+    newListeners[index] = listener;
+    listeners = newListeners;
+    return unwrap(replaced);
+  }
+
+  /**
+   * Return the number of listeners in the collection.
+   * 
+   * @return the number of listeners
+   */
+  public int size() {
+    return listeners.length;
+  }
+
+  /**
+   * Check that an index refers to a listener.
+   * 
+   * @param index the index
+   * @return the index
+   */
+  private int checkIndex(int index) {
+    if ((index < 0) || (index >= listeners.length)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+          + listeners.length);
+    }
+    return index;
+  }
+
+  /**
+   * Get the listener added to the collection from a stored listener.
+   * 
+   * @param listener the stored listener
+   * @return the listener itself, or the listener wrapped by a filter
+   */
+  private SliderListener unwrap(SliderListener listener) {
+    if (listener instanceof FilteredSliderListener) {
+      return ((FilteredSliderListener) listener).listener;
     }
+    return listener;
   }
 }
@@ -0,0 +1,623 @@
+package com.google.gwt.widgetideas.client;
+
+/**
+ * The state of a slider, independent of how it is displayed: the range, the
+ * step size, the current value and the number of labels and ticks, along with
+ * the math used to quantize values and to position the knob, labels and ticks
+ * along a line.
+ * 
+ * This class does not use the DOM, so it runs on a plain JVM as well as in the
+ * browser. Several slider bars may share one model; each of them is notified
+ * through a {@link ChangeListener} when the model changes. A slider bar only
+ * listens to its model, and is only referenced by it, while it is attached.
+ */
+public class SliderModel {
+  /**
+   * A listener notified when a {@link SliderModel} changes.
+   */
+  public interface ChangeListener {
+    /**
+     * Called when the model changes.
+     * 
+     * @param model the model that changed
+     * @param changes the change flags describing what changed
+     * @param fireEvent true if the change should be reported to slider
+     *          listeners
+     */
+    void onModelChanged(SliderModel model, int changes, boolean fireEvent);
+  }
+
+  /**
+   * The change flag for the current value.
+   */
+  public static final int VALUE = 1;
+
+  /**
+   * The change flag for the range or the step size.
+   */
+  public static final int RANGE = 2;
+
+  /**
+   * The change flag for the number of labels.
+   */
+  public static final int LABELS = 4;
+
+  /**
+   * The change flag for the number of ticks.
+   */
+  public static final int TICKS = 8;
+
+  /**
+   * The array shared by all models without listeners.
+   */
+  private static final ChangeListener[] NO_LISTENERS = new ChangeListener[0];
+
+  /**
+   * A tolerance used when counting the steps that fit in the range, so that
+   * ranges which are a multiple of the step size in decimal are not cut short
+   * by floating point rounding.
+   */
+  private static final double STEP_EPSILON = 1e-9;
+
+  /**
+   * The largest number of decimals of the minimum value and the step size for
+   * which step values are computed in scaled integers.
+   */
+  private static final int MAX_DECIMALS = 12;
+
+  /**
+   * The relative tolerance within which a scaled decimal value is considered
+   * an integer, which covers the few units of rounding error of the scaling
+   * but not the fractions of values with more decimals.
+   */
+  private static final double SCALE_EPSILON = 1e-13;
+
+  /**
+   * The largest integer below which all integers are exact doubles.
+   */
+  private static final double MAX_EXACT_INTEGER = 9007199254740992.0;
+
+  /**
+   * Compute the stride between the marks, such as ticks or labels, to show so
+   * that they are at least a minimum distance apart. The stride is a "nice"
+   * number, 1, 2 or 5 times a power of 10, so that the values of the marks
+   * shown remain round.
+   * 
+   * @param count the number of divisions of the line
+   * @param lineLength the length of the line
+   * @param minSpacing the minimum distance between marks, or 0 to show every
+   *          mark
+   * @return the number of divisions between two marks shown, at most count
+   */
+  public static int getMarkStride(int count, int lineLength, int minSpacing) {
+    if ((minSpacing <= 0) || (count <= 0) || (lineLength <= 0)) {
+      return 1;
+    }
+
+    // Step through 1, 2, 5, 10, 20, 50... until the marks are far enough apart
+    double spacing = (double) lineLength / count;
+    int magnitude = 1;
+    int stride = 1;
+    while ((stride * spacing < minSpacing) && (stride < count)) {
+      if (stride == magnitude) {
+        stride = 2 * magnitude;
+      } else if (stride == 2 * magnitude) {
+        stride = 5 * magnitude;
+      } else {
+        magnitude *= 10;
+        stride = magnitude;
+      }
+    }
+    return Math.min(stride, count);
+  }
+
+  /**
+   * Compute the offset of a mark, such as a tick or a label, centered on a
+   * division of the line and kept from overflowing the end of the line.
+   * 
+   * @param index the index of the division
+   * @param count the number of divisions
+   * @param lineOffset the offset of the line from the edge of the shell
+   * @param lineLength the length of the line
+   * @param markLength the length of the mark along the line
+   * @return the offset of the mark from the edge of the shell
+   */
+  public static int getMarkOffset(int index, int count, int lineOffset,
+      int lineLength, int markLength) {
+    int offset = lineOffset + (lineLength * index / count) - (markLength / 2);
+    return Math.min(offset, lineOffset + lineLength - markLength);
+  }
+
+  /**
+   * Get the smallest power of ten that turns two values into integers.
+   * 
+   * @param a the first value
+   * @param b the second value
+   * @return the power of ten, or 0 if the values have more than
+   *         {@link #MAX_DECIMALS} decimals
+   */
+  private static double getDecimalScale(double a, double b) {
+    double scale = 1;
+    for (int i = 0; i <= MAX_DECIMALS; i++) {
+      if (isIntegral(a * scale) && isIntegral(b * scale)) {
+        return scale;
+      }
+      scale *= 10;
+    }
+    return 0;
+  }
+
+  /**
+   * Check whether a value is an exact integer, up to floating point rounding.
+   * 
+   * @param value the value
+   * @return true if the value is close to an integer
+   */
+  private static boolean isIntegral(double value) {
+    return (Math.abs(value) < MAX_EXACT_INTEGER)
+        && (Math.abs(value - Math.rint(value)) <= SCALE_EPSILON
+            * Math.max(1, Math.abs(value)));
+  }
+
+  /**
+   * The listeners notified of changes, replaced when one is added or removed.
+   */
+  private ChangeListener[] listeners = NO_LISTENERS;
+
+  /**
+   * The current value.
+   */
+  private double curValue;
+
+  /**
+   * The inverse of the step size, or 0 if the step size is not positive.
+   */
+  private double inverseStepSize;
+
+  /**
+   * The index of the last step within the range.
+   */
+  private long maxStepIndex;
+
+  /**
+   * The maximum value.
+   */
+  private double maxValue;
+
+  /**
+   * The minimum value multiplied by {@link #valueScale}.
+   */
+  private double minUnits;
+
+  /**
+   * The minimum value.
+   */
+  private double minValue;
+
+  /**
+   * The number of labels to show.
+   */
+  private int numLabels;
+
+  /**
+   * The number of tick marks to show.
+   */
+  private int numTicks;
+
+  /**
+   * The index of the current value, counted in steps from the minimum value.
+   * Only meaningful when the step size is positive.
+   */
+  private long stepIndex;
+
+  /**
+   * The size of the increments between values.
+   */
+  private double stepSize;
+
+  /**
+   * The step size multiplied by {@link #valueScale}.
+   */
+  private double stepUnits;
+
+  /**
+   * The power of ten that turns the minimum value and the step size into
+   * integers, or 0 if there is none small enough. Step values are then
+   * computed as an integer divided by this scale, which gives the double
+   * nearest to the decimal step value, such as 0.9 rather than
+   * 0.8999999999999999 for the third step of 0.3.
+   */
+  private double valueScale;
+
+  /**
+   * Create a model.
+   * 
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   */
+  public SliderModel(double minValue, double maxValue) {
+    this.minValue = minValue;
+    this.maxValue = maxValue;
+    updateSteps();
+  }
+
+  /**
+   * Add a listener notified when the model changes.
+   * 
+   * @param listener the listener to add
+   */
+  public void addChangeListener(ChangeListener listener) {
+    ChangeListener[] newListeners = new ChangeListener[listeners.length + 1];
+    System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+    newListeners[listeners.length] = listener;
+    listeners = newListeners;
+  }
+
+  /**
+   * Return the current value.
+   * 
+   * @return the current value
+   */
+  public double getCurrentValue() {
+    return curValue;
+  }
+
+  /**
+   * Get the number of listeners notified of changes.
+   * 
+   * @return the number of listeners
+   */
+  int getChangeListenerCount() {
+    return listeners.length;
+  }
+
+  /**
+   * Compute the offset of the knob, centered on the current value and kept
+   * from overflowing the end of the line.
+   * 
+   * @param lineOffset the offset of the line from the edge of the shell
+   * @param lineLength the length of the line
+   * @param knobLength the length of the knob along the line
+   * @return the offset of the knob from the edge of the shell
+   */
+  public int getKnobOffset(int lineOffset, int lineLength, int knobLength) {
+    int offset = (int) (lineOffset + (getKnobPercent() * lineLength) - (knobLength / 2));
+    return Math.min(offset, lineOffset + lineLength - (knobLength / 2) - 1);
+  }
+
+  /**
+   * Get the percentage of the knob's position relative to the size of the line.
+   * The return value will be between 0.0 and 1.0.
+   * 
+   * @return the current percent complete
+   */
+  public double getKnobPercent() {
+    // If we have no range
+    if (maxValue <= minValue) {
+      return 0;
+    }
+
+    // Calculate the relative progress
+    double percent = (curValue - minValue) / (maxValue - minValue);
+    return Math.max(0.0, Math.min(1.0, percent));
+  }
+
+  /**
+   * Compute the offset of a label, centered on its division of the line and
+   * kept within the line.
+   * 
+   * @param index the index of the label
+   * @param lineOffset the offset of the line from the edge of the shell
+   * @param lineLength the length of the line
+   * @param labelLength the length of the label along the line
+   * @return the offset of the label from the edge of the shell
+   */
+  public int getLabelOffset(int index, int lineOffset, int lineLength,
+      int labelLength) {
+    return Math.max(getMarkOffset(index, numLabels, lineOffset, lineLength,
+        labelLength), lineOffset);
+  }
+
+  /**
+   * Return the value displayed by a label.
+   * 
+   * @param index the index of the label
+   * @return the value at the label
+   */
+  public double getLabelValue(int index) {
+    return minValue + (getTotalRange() * index / numLabels);
+  }
+
+  /**
+   * Return the max value.
+   * 
+   * @return the max value
+   */
+  public double getMaxValue() {
+    return maxValue;
+  }
+
+  /**
+   * Return the value in the middle of the range.
+   * 
+   * @return the middle value
+   */
+  public double getMiddleValue() {
+    return minValue + getTotalRange() / 2;
+  }
+
+  /**
+   * Return the minimum value.
+   * 
+   * @return the minimum value
+   */
+  public double getMinValue() {
+    return minValue;
+  }
+
+  /**
+   * Return the number of labels.
+   * 
+   * @return the number of labels
+   */
+  public int getNumLabels() {
+    return numLabels;
+  }
+
+  /**
+   * Return the number of ticks.
+   * 
+   * @return the number of ticks
+   */
+  public int getNumTicks() {
+    return numTicks;
+  }
+
+  /**
+   * Return the number of steps of a page jump, which is 10% of the range and
+   * is used when shifting with the ctrl key held down.
+   * 
+   * @return the number of steps in a page
+   */
+  public int getPageSteps() {
+    return (int) (getTotalRange() / stepSize / 10);
+  }
+
+  /**
+   * Return the index of the current value, counted in steps from the minimum
+   * value.
+   * 
+   * @return the step index
+   */
+  public long getStepIndex() {
+    return stepIndex;
+  }
+
+  /**
+   * Return the step size.
+   * 
+   * @return the step size
+   */
+  public double getStepSize() {
+    return stepSize;
+  }
+
+  /**
+   * Compute the offset of a tick, centered on its division of the line and
+   * kept from overflowing the end of the line.
+   * 
+   * @param index the index of the tick
+   * @param lineOffset the offset of the line from the edge of the shell
+   * @param lineLength the length of the line
+   * @param tickLength the length of the tick along the line
+   * @return the offset of the tick from the edge of the shell
+   */
+  public int getTickOffset(int index, int lineOffset, int lineLength,
+      int tickLength) {
+    return getMarkOffset(index, numTicks, lineOffset, lineLength, tickLength);
+  }
+
+  /**
+   * Return the total range between the minimum and maximum values.
+   * 
+   * @return the total range
+   */
+  public double getTotalRange() {
+    if (minValue > maxValue) {
+      return 0;
+    } else {
+      return maxValue - minValue;
+    }
+  }
+
+  /**
+   * Return the (unquantized) value at a position along the line.
+   * 
+   * @param percent the position along the line, 0.0 at the start and 1.0 at
+   *          the end
+   * @return the value at that position
+   */
+  public double getValueAt(double percent) {
+    return getTotalRange() * percent + minValue;
+  }
+
+  /**
+   * Remove a listener notified when the model changes.
+   * 
+   * @param listener the listener to remove
+   */
+  public void removeChangeListener(ChangeListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        if (listeners.length == 1) {
+          listeners = NO_LISTENERS;
+        } else {
+          ChangeListener[] newListeners = new ChangeListener[listeners.length - 1];
+          System.arraycopy(listeners, 0, newListeners, 0, i);
+          System.arraycopy(listeners, i + 1, newListeners, i,
+              newListeners.length - i);
+          listeners = newListeners;
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Set the current value, snapped to the nearest step within the range.
+   * 
+   * @param curValue the current value
+   * @param fireEvent true if the change should be reported to slider listeners
+   */
+  public void setCurrentValue(double curValue, boolean fireEvent) {
+    quantize(curValue);
+    fireChange(VALUE, fireEvent);
+  }
+
+  /**
+   * Set the max value. The current value is confined to the new range.
+   * 
+   * @param maxValue the max value
+   */
+  public void setMaxValue(double maxValue) {
+    this.maxValue = maxValue;
+    updateSteps();
+    quantize(curValue);
+    fireChange(RANGE | VALUE, true);
+  }
+
+  /**
+   * Set the minimum value. The current value is confined to the new range.
+   * 
+   * @param minValue the minimum value
+   */
+  public void setMinValue(double minValue) {
+    this.minValue = minValue;
+    updateSteps();
+    quantize(curValue);
+    fireChange(RANGE | VALUE, true);
+  }
+
+  /**
+   * Set the number of labels.
+   * 
+   * @param numLabels the number of labels
+   */
+  public void setNumLabels(int numLabels) {
+    this.numLabels = numLabels;
+    fireChange(LABELS, false);
+  }
+
+  /**
+   * Set the number of ticks.
+   * 
+   * @param numTicks the number of ticks
+   */
+  public void setNumTicks(int numTicks) {
+    this.numTicks = numTicks;
+    fireChange(TICKS, false);
+  }
+
+  /**
+   * Set the current value to a step. The step index is confined to the steps
+   * within the range. This has no effect if the step size is not positive.
+   * 
+   * @param stepIndex the index of the step, counted from the minimum value
+   * @param fireEvent true if the change should be reported to slider listeners
+   */
+  public void setStepIndex(long stepIndex, boolean fireEvent) {
+    if (stepSize > 0) {
+      applyStepIndex(stepIndex);
+      fireChange(VALUE, fireEvent);
+    }
+  }
+
+  /**
+   * Set the step size. The current value is snapped to the new steps.
+   * 
+   * @param stepSize the step size
+   */
+  public void setStepSize(double stepSize) {
+    this.stepSize = stepSize;
+    updateSteps();
+    quantize(curValue);
+    fireChange(RANGE | VALUE, true);
+  }
+
+  /**
+   * Shift the current value by a number of steps. This has no effect if the
+   * step size is not positive.
+   * 
+   * @param numSteps the number of steps to shift, negative to shift toward the
+   *          minimum value
+   * @param fireEvent true if the change should be reported to slider listeners
+   */
+  public void shiftSteps(int numSteps, boolean fireEvent) {
+    setStepIndex(stepIndex + numSteps, fireEvent);
+  }
+
+  /**
+   * Set the step index, confined to the steps within the range, and derive
+   * the current value from it.
+   * 
+   * @param stepIndex the index of the step
+   */
+  private void applyStepIndex(long stepIndex) {
+    this.stepIndex = Math.max(0, Math.min(maxStepIndex, stepIndex));
+    if (valueScale > 0) {
+      curValue = (minUnits + this.stepIndex * stepUnits) / valueScale;
+    } else {
+      curValue = minValue + this.stepIndex * stepSize;
+    }
+  }
+
+  /**
+   * Notify the listeners of a change.
+   * 
+   * @param changes the change flags describing what changed
+   * @param fireEvent true if the change should be reported to slider listeners
+   */
+  private void fireChange(int changes, boolean fireEvent) {
+    ChangeListener[] snapshot = listeners;
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i].onModelChanged(this, changes, fireEvent);
+    }
+  }
+
+  /**
+   * Set the current value, snapped to the nearest step within the range, or
+   * only confined to the range if the step size is not positive.
+   * 
+   * @param value the value to quantize
+   */
+  private void quantize(double value) {
+    if (stepSize > 0) {
+      applyStepIndex(Math.round((value - minValue) * inverseStepSize));
+    } else {
+      curValue = Math.max(minValue, Math.min(maxValue, value));
+    }
+  }
+
+  /**
+   * Recompute the step basis after the range or the step size changed.
+   */
+  private void updateSteps() {
+    if (stepSize > 0) {
+      inverseStepSize = 1 / stepSize;
+      maxStepIndex = Math.max(0,
+          (long) Math.floor(getTotalRange() * inverseStepSize + STEP_EPSILON));
+
+      // Compute step values in scaled integers if they stay exact
+      valueScale = getDecimalScale(minValue, stepSize);
+      minUnits = Math.rint(minValue * valueScale);
+      stepUnits = Math.rint(stepSize * valueScale);
+      if (Math.abs(minUnits) + maxStepIndex * stepUnits >= MAX_EXACT_INTEGER) {
+        valueScale = 0;
+      }
+    } else {
+      inverseStepSize = 0;
+      maxStepIndex = 0;
+      valueScale = 0;
+    }
+  }
+}
@@ -0,0 +1,748 @@
+package com.google.gwt.widgetideas.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.StyleInjector;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.ui.FocusPanel;
+import com.google.gwt.user.client.ui.KeyboardListener;
+
+/**
+ * A panel displaying many sliders, such as the faders of a mixing console, as
+ * lightweight views rather than widgets. Each view is a few elements bound to
+ * a {@link SliderModel}; the panel handles the events of all the views with
+ * its own listener, registers once with the {@link ResizableWidgetCollection}
+ * and shares one key repeat timer, so that the cost of the panel grows with
+ * the number of elements only.
+ * 
+ * Views show a line, a knob and, if the model has ticks, evenly spaced ticks
+ * painted by a gradient. Value changes are observed through the models, with
+ * {@link SliderModel#addChangeListener(SliderModel.ChangeListener)}. The views
+ * only listen to their models while the panel is attached, so that long-lived
+ * models do not keep a detached panel from being garbage collected.
+ * 
+ * <h3>Keyboard Events</h3>
+ * <p>
+ * The keys act on the active slider, which is the last slider clicked:
+ * <ul>
+ * <li>left/up and right/down along the sliders - shift by one step</li>
+ * <li>ctrl + the above - shift by a larger increment</li>
+ * <li>left/up and right/down across the sliders - activate the previous or
+ * next slider</li>
+ * <li>home - jump to min value</li>
+ * <li>end - jump to max value</li>
+ * <li>space - jump to middle value</li>
+ * </ul>
+ * </p>
+ * 
+ * <h3>CSS Style Rules</h3>
+ * <ul class="css">
+ * <li>.gwt-SliderPanel-shell { the panel }</li>
+ * <li>.gwt-SliderPanel-horizontal, .gwt-SliderPanel-vertical { the panel,
+ * depending on its orientation }</li>
+ * <li>.gwt-SliderPanel-slider { each slider }</li>
+ * <li>.gwt-SliderPanel-slider-active { the active slider }</li>
+ * <li>.gwt-SliderPanel-line { the line of each slider }</li>
+ * <li>.gwt-SliderPanel-knob { the knob of each slider }</li>
+ * <li>.gwt-SliderPanel-ticks { the ticks of each slider }</li>
+ * </ul>
+ */
+public class SliderPanel extends FocusPanel implements ResizableWidget {
+  /**
+   * A bit indicating whether the CSS of the panels has been injected.
+   */
+  private static boolean cssInjected = false;
+
+  /**
+   * Inject the CSS of the panels in the document headers, if it has not been
+   * injected yet. The CSS is injected at the end of the current event loop,
+   * along with any other pending styles, unless it is needed sooner.
+   */
+  public static void ensureCssInjected() {
+    if (!cssInjected) {
+      cssInjected = true;
+      StyleInjector.injectAtEnd(Resources.INSTANCE.getSliderPanelCss().getText());
+    }
+  }
+
+  /**
+   * The timer shared by all the views to continue to shift the active slider
+   * as the user holds down a key.
+   */
+  private class KeyTimer extends Timer {
+    /**
+     * The delay between shifts.
+     */
+    private int repeatDelay = 30;
+
+    /**
+     * The number of steps to shift with each run, negative to shift toward the
+     * minimum value.
+     */
+    private int numSteps;
+
+    public void run() {
+      if (activeView != null) {
+        activeView.model.shiftSteps(numSteps, true);
+        schedule(repeatDelay);
+      }
+    }
+
+    /**
+     * Schedules the timer to start shifting after a delay.
+     * 
+     * @param delayMillis how long to wait before the first shift, in
+     *          milliseconds
+     * @param numSteps the number of steps to shift with each run
+     */
+    public void schedule(int delayMillis, int numSteps) {
+      this.numSteps = numSteps;
+      schedule(delayMillis);
+    }
+  }
+
+  /**
+   * A slider displayed by the panel.
+   */
+  private class SliderView implements SliderModel.ChangeListener {
+    /**
+     * A bit indicating whether the knob needs to be redrawn.
+     */
+    private boolean dirty = true;
+
+    /**
+     * The element containing the line and the knob.
+     */
+    private final Element element;
+
+    /**
+     * The knob element.
+     */
+    private final Element knobElement;
+
+    /**
+     * The length of the knob along the line, as last measured.
+     */
+    private int knobLength;
+
+    /**
+     * The line element.
+     */
+    private final Element lineElement;
+
+    /**
+     * The length of the line, as last measured.
+     */
+    private int lineLength;
+
+    /**
+     * The offset between the edge of the view and the line.
+     */
+    private int lineOffset;
+
+    /**
+     * The model displayed by the view.
+     */
+    private final SliderModel model;
+
+    /**
+     * The element whose background paints the ticks, or null if it has not
+     * been created.
+     */
+    private Element tickStripElement;
+
+    /**
+     * A bit indicating whether the ticks need to be redrawn.
+     */
+    private boolean ticksDirty = true;
+
+    public SliderView(SliderModel model) {
+      this.model = model;
+      element = DOM.createDiv();
+      DOM.setElementProperty(element, "className", styleBaseName + "-slider");
+      lineElement = DOM.createDiv();
+      DOM.setStyleAttribute(lineElement, "position", "absolute");
+      DOM.setElementProperty(lineElement, "className", styleBaseName + "-line");
+      DOM.appendChild(element, lineElement);
+      knobElement = DOM.createDiv();
+      DOM.setStyleAttribute(knobElement, "position", "absolute");
+      DOM.setElementProperty(knobElement, "className", styleBaseName + "-knob");
+      DOM.appendChild(element, knobElement);
+    }
+
+    public void onModelChanged(SliderModel model, int changes, boolean fireEvent) {
+      dirty = true;
+      if ((changes & (SliderModel.RANGE | SliderModel.TICKS)) != 0) {
+        ticksDirty = true;
+      }
+      scheduleDraw();
+    }
+
+    /**
+     * Move the knob, and draw the ticks if they changed.
+     */
+    private void draw() {
+      dirty = false;
+      DOM.setStyleAttribute(knobElement, vertical ? "top" : "left",
+          model.getKnobOffset(lineOffset, lineLength, knobLength) + "px");
+      if (ticksDirty) {
+        ticksDirty = false;
+        drawTicks();
+      }
+    }
+
+    /**
+     * Draw evenly spaced ticks as the repeating gradient background of the
+     * tick strip, or hide it if the model has no ticks.
+     */
+    private void drawTicks() {
+      int numTicks = model.getNumTicks();
+      if (numTicks <= 0) {
+        if (tickStripElement != null) {
+          DOM.setStyleAttribute(tickStripElement, "display", "none");
+        }
+        return;
+      }
+      if (tickStripElement == null) {
+        tickStripElement = DOM.createDiv();
+        DOM.setStyleAttribute(tickStripElement, "position", "absolute");
+        DOM.setElementProperty(tickStripElement, "className", styleBaseName
+            + "-ticks");
+        DOM.appendChild(element, tickStripElement);
+      }
+      double period = (double) lineLength / numTicks;
+      DOM.setStyleAttribute(tickStripElement, vertical ? "top" : "left",
+          lineOffset + "px");
+      DOM.setStyleAttribute(tickStripElement, vertical ? "height" : "width",
+          (lineLength + 1) + "px");
+      DOM.setStyleAttribute(tickStripElement, "backgroundImage",
+          "repeating-linear-gradient(" + (vertical ? "to bottom" : "to right")
+              + ", currentColor 0px, currentColor 1px, transparent 1px, "
+              + "transparent " + period + "px)");
+      DOM.setStyleAttribute(tickStripElement, "display", "");
+    }
+
+    /**
+     * Set the styles of the view.
+     * 
+     * @param active true if the view is the active view
+     * @param sliding true if the knob is sliding
+     */
+    private void setStyles(boolean active, boolean sliding) {
+      DOM.setElementProperty(element, "className", styleBaseName + "-slider"
+          + (active ? " " + styleBaseName + "-slider-active" : ""));
+      DOM.setElementProperty(lineElement, "className", styleBaseName + "-line"
+          + (sliding ? " " + styleBaseName + "-line-sliding" : ""));
+      DOM.setElementProperty(knobElement, "className", styleBaseName + "-knob"
+          + (sliding ? " " + styleBaseName + "-knob-sliding" : ""));
+    }
+  }
+
+  /**
+   * Get the position of the start of an element relative to the viewport, in
+   * the coordinates of mouse events.
+   * 
+   * @param elem the element
+   * @param vertical true for the top of the element, false for its left
+   * @return the position in pixels
+   */
+  private static native int getClientStart(Element elem, boolean vertical) /*-{
+    var rect = elem.getBoundingClientRect();
+    return Math.round(vertical ? rect.top : rect.left);
+  }-*/;
+
+  /**
+   * The view acted on by the keyboard, or null if there is none.
+   */
+  private SliderView activeView;
+
+  /**
+   * The position of the start of the line of the dragged view, relative to the
+   * viewport.
+   */
+  private int dragLineStart;
+
+  /**
+   * The view whose knob is dragged with the mouse, or null if there is none.
+   */
+  private SliderView dragView;
+
+  /**
+   * The command that draws the dirty views at the end of the current event
+   * loop.
+   */
+  private final ScheduledCommand drawCommand = new ScheduledCommand() {
+    public void execute() {
+      drawScheduled = false;
+      drawViews(false);
+    }
+  };
+
+  /**
+   * A bit indicating whether the draw command is scheduled.
+   */
+  private boolean drawScheduled = false;
+
+  /**
+   * The timer shared by the views to shift the active slider while a key is
+   * held down.
+   */
+  private final KeyTimer keyTimer = new KeyTimer();
+
+  /**
+   * A bit indicating whether the active slider is sliding due to keyboard
+   * events.
+   */
+  private boolean slidingKeyboard = false;
+
+  /**
+   * The base name from which CSS style names for the panel are derived.
+   */
+  private final String styleBaseName;
+
+  /**
+   * A bit indicating whether the sliders are vertical.
+   */
+  private final boolean vertical;
+
+  /**
+   * The views, in the order of their elements.
+   */
+  private final List/* <SliderView> */views = new ArrayList/* <SliderView> */();
+
+  /**
+   * The views, keyed by their elements. The panel element may hold other
+   * children, such as the hidden input that receives the focus on some
+   * browsers, so views are not found by the index of their elements.
+   */
+  private final Map/* <Element, SliderView> */viewsByElement = new HashMap/* <Element, SliderView> */();
+
+  /**
+   * Create a panel.
+   * 
+   * @param vertical true for vertical sliders, side by side, false for
+   *          horizontal sliders, one above the other
+   */
+  public SliderPanel(boolean vertical) {
+    this(vertical, "gwt-SliderPanel");
+  }
+
+  /**
+   * Create a panel.
+   * 
+   * @param vertical true for vertical sliders, side by side, false for
+   *          horizontal sliders, one above the other
+   * @param styleBaseName the base name from which CSS style names for the
+   *          panel are derived
+   */
+  public SliderPanel(boolean vertical, String styleBaseName) {
+    ensureCssInjected();
+    this.vertical = vertical;
+    this.styleBaseName = styleBaseName;
+    sinkEvents(Event.FOCUSEVENTS | Event.KEYEVENTS | Event.MOUSEEVENTS
+        | Event.ONMOUSEWHEEL);
+    setStyleName(styleBaseName + "-shell");
+    addStyleName(styleBaseName + (vertical ? "-vertical" : "-horizontal"));
+  }
+
+  /**
+   * Add a slider displaying a new model.
+   * 
+   * @param minValue the minimum value in the range
+   * @param maxValue the maximum value in the range
+   * @return the model of the slider
+   */
+  public SliderModel addSlider(double minValue, double maxValue) {
+    SliderModel model = new SliderModel(minValue, maxValue);
+    addSlider(model);
+    return model;
+  }
+
+  /**
+   * Add a slider displaying a model.
+   * 
+   * @param model the model, which may be shared with other sliders
+   */
+  public void addSlider(SliderModel model) {
+    SliderView view = new SliderView(model);
+    views.add(view);
+    viewsByElement.put(view.element, view);
+    DOM.appendChild(getElement(), view.element);
+    if (isAttached()) {
+      model.addChangeListener(view);
+      redraw();
+    }
+  }
+
+  /**
+   * Get the index of the active slider, which the keyboard acts on.
+   * 
+   * @return the index, or -1 if there is no active slider
+   */
+  public int getActiveIndex() {
+    return views.indexOf(activeView);
+  }
+
+  /**
+   * Get the number of sliders.
+   * 
+   * @return the number of sliders
+   */
+  public int getSliderCount() {
+    return views.size();
+  }
+
+  /**
+   * Get the model of a slider.
+   * 
+   * @param index the index of the slider
+   * @return the model
+   */
+  public SliderModel getSliderModel(int index) {
+    return ((SliderView) views.get(index)).model;
+  }
+
+  /**
+   * Check whether the sliders are vertical.
+   * 
+   * @return true if the sliders are vertical
+   */
+  public boolean isVertical() {
+    return vertical;
+  }
+
+  /**
+   * Handle the events of all the sliders.
+   * 
+   * @param event the event that occurred
+   */
+  public void onBrowserEvent(Event event) {
+    super.onBrowserEvent(event);
+    switch (DOM.eventGetType(event)) {
+      case Event.ONFOCUS:
+        addStyleName(styleBaseName + "-shell-focused");
+        break;
+
+      // Unhighlight and stop sliding
+      case Event.ONBLUR:
+        removeStyleName(styleBaseName + "-shell-focused");
+        keyTimer.cancel();
+        stopSliding();
+        break;
+
+      // Jump or shift on key press
+      case Event.ONKEYDOWN:
+        if ((activeView != null) && !slidingKeyboard) {
+          onKeyDown(event);
+        }
+        break;
+
+      // Stop shifting on key up
+      case Event.ONKEYUP:
+        keyTimer.cancel();
+        if (slidingKeyboard) {
+          slidingKeyboard = false;
+          activeView.setStyles(true, false);
+        }
+        break;
+
+      // Mouse Events
+      case Event.ONMOUSEDOWN: {
+        SliderView view = findView(DOM.eventGetTarget(event));
+        if ((view != null) && (dragView == null)) {
+          setFocus(true);
+          setActiveView(view);
+          dragView = view;
+          dragLineStart = getClientStart(view.lineElement, vertical);
+          DOM.setCapture(getElement());
+          view.setStyles(true, true);
+          DOM.eventPreventDefault(event);
+          slideKnob(event);
+        }
+        break;
+      }
+      case Event.ONMOUSEMOVE:
+        if (dragView != null) {
+          slideKnob(event);
+        }
+        break;
+      case Event.ONMOUSEUP:
+        if (dragView != null) {
+          slideKnob(event);
+          stopSliding();
+        }
+        break;
+      case Event.ONMOUSEWHEEL: {
+        SliderView view = findView(DOM.eventGetTarget(event));
+        if (view != null) {
+          DOM.eventPreventDefault(event);
+          int velocityY = DOM.eventGetMouseWheelVelocityY(event);
+          view.model.shiftSteps(velocityY > 0 ? 1 : -1, true);
+        }
+        break;
+      }
+    }
+  }
+
+  /**
+   * Measure and redraw all the sliders when the panel is resized.
+   * 
+   * @param width the new client width of the element
+   * @param height the new client height of the element
+   */
+  public void onResize(int width, int height) {
+    // Read the sizes of all the views first
+    int numViews = views.size();
+    int[] sizes = new int[numViews * 3];
+    for (int i = 0; i < numViews; i++) {
+      SliderView view = (SliderView) views.get(i);
+      sizes[3 * i] = DOM.getElementPropertyInt(view.element,
+          vertical ? "clientHeight" : "clientWidth");
+      sizes[3 * i + 1] = DOM.getElementPropertyInt(view.lineElement,
+          vertical ? "offsetHeight" : "offsetWidth");
+      sizes[3 * i + 2] = DOM.getElementPropertyInt(view.knobElement,
+          vertical ? "offsetHeight" : "offsetWidth");
+    }
+
+    // Then center the lines and redraw everything
+    for (int i = 0; i < numViews; i++) {
+      SliderView view = (SliderView) views.get(i);
+      view.lineLength = sizes[3 * i + 1];
+      view.knobLength = sizes[3 * i + 2];
+      view.lineOffset = (sizes[3 * i] / 2) - (view.lineLength / 2);
+      DOM.setStyleAttribute(view.lineElement, vertical ? "top" : "left",
+          view.lineOffset + "px");
+      view.ticksDirty = true;
+    }
+    drawViews(true);
+  }
+
+  /**
+   * Measure and redraw all the sliders.
+   */
+  public void redraw() {
+    if (isAttached()) {
+      onResize(DOM.getElementPropertyInt(getElement(), "clientWidth"),
+          DOM.getElementPropertyInt(getElement(), "clientHeight"));
+    }
+  }
+
+  /**
+   * Remove the first slider displaying a model.
+   * 
+   * @param model the model
+   * @return true if a slider was removed
+   */
+  public boolean removeSlider(SliderModel model) {
+    for (int i = 0; i < views.size(); i++) {
+      SliderView view = (SliderView) views.get(i);
+      if (view.model == model) {
+        if (view == dragView) {
+          stopSliding();
+        }
+        if (view == activeView) {
+          keyTimer.cancel();
+          slidingKeyboard = false;
+          activeView = null;
+        }
+        if (isAttached()) {
+          model.removeChangeListener(view);
+        }
+        DOM.removeChild(getElement(), view.element);
+        views.remove(i);
+        viewsByElement.remove(view.element);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Set the active slider, which the keyboard acts on.
+   * 
+   * @param index the index of the slider, or -1 for none
+   */
+  public void setActiveIndex(int index) {
+    setActiveView((index < 0) ? null : (SliderView) views.get(index));
+  }
+
+  /**
+   * Register the panel for resize checks and with the models, and draw it.
+   */
+  protected void onLoad() {
+    // Apply the styles injected since the end of the last event loop
+    StyleInjector.flush();
+    DOM.setStyleAttribute(getElement(), "position", "relative");
+    ResizableWidgetCollection.get().add(this);
+    for (int i = 0; i < views.size(); i++) {
+      SliderView view = (SliderView) views.get(i);
+      view.model.addChangeListener(view);
+    }
+    redraw();
+  }
+
+  /**
+   * Unregister the panel from resize checks and from the models, and stop any
+   * sliding.
+   */
+  protected void onUnload() {
+    ResizableWidgetCollection.get().remove(this);
+    for (int i = 0; i < views.size(); i++) {
+      SliderView view = (SliderView) views.get(i);
+      view.model.removeChangeListener(view);
+    }
+    keyTimer.cancel();
+    slidingKeyboard = false;
+    stopSliding();
+  }
+
+  /**
+   * Draw the views.
+   * 
+   * @param all true to draw all the views, false to draw the dirty views
+   */
+  private void drawViews(boolean all) {
+    if (!isAttached()) {
+      return;
+    }
+    for (int i = 0; i < views.size(); i++) {
+      SliderView view = (SliderView) views.get(i);
+      if (all || view.dirty) {
+        view.draw();
+      }
+    }
+  }
+
+  /**
+   * Find the view containing an element.
+   * 
+   * @param target the element, such as the target of an event
+   * @return the view, or null if the element is not in a view
+   */
+  private SliderView findView(Element target) {
+    Element panelElement = getElement();
+    Element elem = target;
+    while ((elem != null) && (elem != panelElement)) {
+      Element parent = DOM.getParent(elem);
+      if (parent == panelElement) {
+        return (SliderView) viewsByElement.get(elem);
+      }
+      elem = parent;
+    }
+    return null;
+  }
+
+  /**
+   * Handle a key press for the active slider.
+   * 
+   * @param event the key down event
+   */
+  private void onKeyDown(Event event) {
+    SliderModel model = activeView.model;
+    int multiplier = 1;
+    if (DOM.eventGetCtrlKey(event)) {
+      multiplier = model.getPageSteps();
+    }
+
+    int keyCode = DOM.eventGetKeyCode(event);
+    int decreaseKey = vertical ? KeyboardListener.KEY_UP
+        : KeyboardListener.KEY_LEFT;
+    int increaseKey = vertical ? KeyboardListener.KEY_DOWN
+        : KeyboardListener.KEY_RIGHT;
+    int previousKey = vertical ? KeyboardListener.KEY_LEFT
+        : KeyboardListener.KEY_UP;
+    int nextKey = vertical ? KeyboardListener.KEY_RIGHT
+        : KeyboardListener.KEY_DOWN;
+    if ((keyCode == decreaseKey) || (keyCode == increaseKey)) {
+      DOM.eventPreventDefault(event);
+      int numSteps = (keyCode == increaseKey) ? multiplier : -multiplier;
+      slidingKeyboard = true;
+      activeView.setStyles(true, true);
+      model.shiftSteps(numSteps, true);
+      keyTimer.schedule(400, numSteps);
+    } else if ((keyCode == previousKey) || (keyCode == nextKey)) {
+      DOM.eventPreventDefault(event);
+      int index = views.indexOf(activeView) + ((keyCode == nextKey) ? 1 : -1);
+      if ((index >= 0) && (index < views.size())) {
+        setActiveIndex(index);
+      }
+    } else if (keyCode == KeyboardListener.KEY_HOME) {
+      DOM.eventPreventDefault(event);
+      model.setCurrentValue(model.getMinValue(), true);
+    } else if (keyCode == KeyboardListener.KEY_END) {
+      DOM.eventPreventDefault(event);
+      model.setCurrentValue(model.getMaxValue(), true);
+    } else if (keyCode == 32) {
+      DOM.eventPreventDefault(event);
+      model.setCurrentValue(model.getMiddleValue(), true);
+    }
+  }
+
+  /**
+   * Schedule the dirty views to be drawn at the end of the current event loop.
+   */
+  private void scheduleDraw() {
+    if (isAttached() && !drawScheduled) {
+      drawScheduled = true;
+      Scheduler.get().scheduleFinally(drawCommand);
+    }
+  }
+
+  /**
+   * Make a view the active view.
+   * 
+   * @param view the view, or null for none
+   */
+  private void setActiveView(SliderView view) {
+    if (view == activeView) {
+      return;
+    }
+    if (activeView != null) {
+      keyTimer.cancel();
+      slidingKeyboard = false;
+      activeView.setStyles(false, false);
+    }
+    activeView = view;
+    if (view != null) {
+      view.setStyles(true, false);
+    }
+  }
+
+  /**
+   * Move the knob of the dragged view to the value under the mouse.
+   * 
+   * @param event the mouse event
+   */
+  private void slideKnob(Event event) {
+    if (dragView.lineLength > 0) {
+      int position = vertical ? DOM.eventGetClientY(event)
+          : DOM.eventGetClientX(event);
+      double percent = (double) (position - dragLineStart)
+          / dragView.lineLength;
+      dragView.model.setCurrentValue(dragView.model.getValueAt(percent), true);
+    }
+  }
+
+  /**
+   * Stop dragging the knob of the dragged view, if any.
+   */
+  private void stopSliding() {
+    if (dragView != null) {
+      DOM.releaseCapture(getElement());
+      dragView.setStyles(dragView == activeView, false);
+      dragView = null;
+    }
+    if (slidingKeyboard && (activeView != null)) {
+      slidingKeyboard = false;
+      activeView.setStyles(true, false);
+    }
+  }
+}
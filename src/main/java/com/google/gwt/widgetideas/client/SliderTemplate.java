@@ -0,0 +1,233 @@
+package com.google.gwt.widgetideas.client;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+
+/**
+ * The prototype elements of the slider bars sharing a style base name. Slider
+ * bars clone the line and the tick strip from their prototypes instead of
+ * creating and styling them one call at a time, and get their labels and ticks
+ * from pools, so that any number of labels or ticks is added to a slider bar
+ * with one clone and one append. Only the most recently used pools are kept,
+ * and pools of more than {@link #MAX_POOL_SIZE} elements are not kept.
+ * 
+ * The knob is not cloned, since each knob is an Image widget.
+ */
+class SliderTemplate {
+  /**
+   * A map of pools in access order that removes its eldest pool when full.
+   */
+  private static class PoolMap extends LinkedHashMap/* <Integer, JavaScriptObject> */{
+    private static final long serialVersionUID = 1L;
+
+    public PoolMap() {
+      super(16, 0.75f, true);
+    }
+
+    protected boolean removeEldestEntry(Map.Entry eldest) {
+      return size() > MAX_POOLS;
+    }
+  }
+
+  /**
+   * The maximum number of pools kept for each kind of element.
+   */
+  static final int MAX_POOLS = 8;
+
+  /**
+   * The maximum number of elements in a pool that is kept.
+   */
+  static final int MAX_POOL_SIZE = 1024;
+
+  /**
+   * The templates, keyed by style base name.
+   */
+  private static final Map/* <String, SliderTemplate> */templates = new HashMap/* <String, SliderTemplate> */();
+
+  /**
+   * Get the template of a style base name.
+   * 
+   * @param styleBaseName the style base name of the slider bars
+   * @return the template
+   */
+  public static SliderTemplate get(String styleBaseName) {
+    SliderTemplate template = (SliderTemplate) templates.get(styleBaseName);
+    if (template == null) {
+      template = new SliderTemplate(styleBaseName);
+      templates.put(styleBaseName, template);
+    }
+    return template;
+  }
+
+  /**
+   * Append the children of a pool, or of a deep clone of it, to an element.
+   * 
+   * @param parent the element receiving the children
+   * @param pool the pool
+   * @param clone true to append a clone and keep the pool, false to empty the
+   *          pool into the element
+   * @return the first appended element
+   */
+  private static native Element appendPool(Element parent,
+      JavaScriptObject pool, boolean clone) /*-{
+    var copy = clone ? pool.cloneNode(true) : pool;
+    var first = copy.firstChild;
+    parent.appendChild(copy);
+    return first;
+  }-*/;
+
+  /**
+   * Create a pool holding copies of an element in a document fragment.
+   * 
+   * @param prototype the element to copy
+   * @param count the number of copies
+   * @return the pool
+   */
+  private static native JavaScriptObject createPool(Element prototype,
+      int count) /*-{
+    var pool = $doc.createDocumentFragment();
+    for (var i = 0; i < count; i++) {
+      pool.appendChild(prototype.cloneNode(false));
+    }
+    return pool;
+  }-*/;
+
+  /**
+   * Create an absolutely positioned element.
+   * 
+   * @param className the class name of the element
+   * @param hidden true to hide the element
+   * @return the element
+   */
+  private static Element createPrototype(String className, boolean hidden) {
+    Element elem = DOM.createDiv();
+    DOM.setStyleAttribute(elem, "position", "absolute");
+    if (hidden) {
+      DOM.setStyleAttribute(elem, "display", "none");
+    }
+    DOM.setElementProperty(elem, "className", className);
+    return elem;
+  }
+
+  /**
+   * The prototype of the labels.
+   */
+  private final Element label;
+
+  /**
+   * The most recently used pools of labels, keyed by size.
+   */
+  private final PoolMap labelPools = new PoolMap();
+
+  /**
+   * The prototype of the line.
+   */
+  private final Element line;
+
+  /**
+   * The prototype of the ticks.
+   */
+  private final Element tick;
+
+  /**
+   * The most recently used pools of ticks, keyed by size.
+   */
+  private final PoolMap tickPools = new PoolMap();
+
+  /**
+   * The prototype of the tick strip.
+   */
+  private final Element tickStrip;
+
+  private SliderTemplate(String styleBaseName) {
+    line = createPrototype(styleBaseName + "-line", false);
+    label = createPrototype(styleBaseName + "-label", true);
+    tick = createPrototype(styleBaseName + "-tick", true);
+    tickStrip = createPrototype(styleBaseName + "-ticks", false);
+  }
+
+  /**
+   * Append hidden labels to an element.
+   * 
+   * @param parent the element receiving the labels
+   * @param count the number of labels
+   * @param dest the list receiving the labels
+   */
+  public void appendLabels(Element parent, int count, List/* <Element> */dest) {
+    appendFromPool(parent, label, labelPools, count, dest);
+  }
+
+  /**
+   * Append hidden ticks to an element.
+   * 
+   * @param parent the element receiving the ticks
+   * @param count the number of ticks
+   * @param dest the list receiving the ticks
+   */
+  public void appendTicks(Element parent, int count, List/* <Element> */dest) {
+    appendFromPool(parent, tick, tickPools, count, dest);
+  }
+
+  /**
+   * Create a line element.
+   * 
+   * @return the new element
+   */
+  public Element cloneLine() {
+    return DOM.clone(line, false);
+  }
+
+  /**
+   * Create a tick strip element.
+   * 
+   * @return the new element
+   */
+  public Element cloneTickStrip() {
+    return DOM.clone(tickStrip, false);
+  }
+
+  /**
+   * Get the number of pools kept.
+   * 
+   * @return the number of label and tick pools
+   */
+  int getPoolCount() {
+    return labelPools.size() + tickPools.size();
+  }
+
+  /**
+   * Append copies of a prototype to an element, cloned from the pool of the
+   * requested size.
+   * 
+   * @param parent the element receiving the copies
+   * @param prototype the prototype of the pool
+   * @param pools the pools of the prototype, keyed by size
+   * @param count the number of copies
+   * @param dest the list receiving the copies
+   */
+  private void appendFromPool(Element parent, Element prototype,
+      PoolMap pools, int count, List/* <Element> */dest) {
+    Integer key = Integer.valueOf(count);
+    JavaScriptObject pool = (JavaScriptObject) pools.get(key);
+    boolean clone = true;
+    if (pool == null) {
+      pool = createPool(prototype, count);
+      if (count <= MAX_POOL_SIZE) {
+        pools.put(key, pool);
+      } else {
+        clone = false;
+      }
+    }
+    Element elem = appendPool(parent, pool, clone);
+    for (int i = 0; i < count; i++) {
+      dest.add(elem);
+      elem = DOM.getNextSibling(elem);
+    }
+  }
+}
@@ -12,6 +12,15 @@ public interface SourcesSliderEvents {
 	   */
 	  void addSliderListener(SliderListener listener);
 
+	  /**
+	   * Adds a listener interface to receive slider events, which only
+	   * receives the value changes accepted by a filter.
+	   * 
+	   * @param listener the listener interface to add
+	   * @param filter the filter applied to value changes
+	   */
+	  void addSliderListener(SliderListener listener, ValueChangeFilter filter);
+
 	  /**
 	   * Removes a previously added listener interface.
 	   * 
@@ -18,6 +18,7 @@ package com.google.gwt.widgetideas.client;
 import java.util.Iterator;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.dom.client.StyleInjector;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Element;
 import com.google.gwt.user.client.Event;
@@ -81,6 +82,23 @@ public class VSliderBar extends SliderBar {
     AbstractImagePrototype vsliderSliding();
   }
   
+  /**
+   * A bit indicating whether the CSS of the slider bars has been injected.
+   */
+  private static boolean cssInjected = false;
+
+  /**
+   * Inject the CSS of the slider bars in the document headers, if it has not
+   * been injected yet. The CSS is injected at the end of the current event
+   * loop, along with any other pending styles, unless it is needed sooner.
+   */
+  public static void ensureCssInjected() {
+    if (!cssInjected) {
+      cssInjected = true;
+      StyleInjector.injectAtEnd(Resources.INSTANCE.getVSliderCss().getText());
+    }
+  }
+
   /**
    * Create a slider bar.
    * 
@@ -130,39 +148,54 @@ public class VSliderBar extends SliderBar {
    */
   public VSliderBar(double minValue, double maxValue,
       LabelFormatter labelFormatter, AbstractImagePrototype[] images, String styleBaseName) {
+    this(new SliderModel(minValue, maxValue), labelFormatter, images,
+        styleBaseName);
+  }
+
+  /**
+   * Create a slider bar that displays a model, which may be shared with other
+   * slider bars.
+   * 
+   * @param model the model holding the range, step size and current value
+   * @param labelFormatter the label formatter
+   * @param images the images to use for the slider
+   * @param styleBaseName the base name from which CSS style
+   * names for the slider are derived
+   */
+  public VSliderBar(SliderModel model, LabelFormatter labelFormatter,
+      AbstractImagePrototype[] images, String styleBaseName) {
     super();
-    this.minValue = minValue;
-    this.maxValue = maxValue;
-    if (images != null) {
-      this.images = images;
-    } else {
-      this.images = new AbstractImagePrototype[2];
-      VSliderBarImages defaultImages = (VSliderBarImages) GWT.create(VSliderBarImages.class);
-      this.images[0] = defaultImages.vslider();
-      this.images[1] = defaultImages.vsliderSliding();
-    }
+    ensureCssInjected();
+    setModel(model);
+    this.images = images;
     this.styleBaseName = styleBaseName;
     setLabelFormatter(labelFormatter);
-
-    // Create the outer shell
-    DOM.setStyleAttribute(getElement(), "position", "relative");
     setStyleName(styleBaseName + "-shell");
+  }
 
-    // Create the line
-    lineElement = DOM.createDiv();
+  /**
+   * Create the line and the knob. This is called on the first attach.
+   */
+  protected void buildElements() {
+    if (images == null) {
+      images = new AbstractImagePrototype[2];
+      VSliderBarImages defaultImages = (VSliderBarImages) GWT.create(VSliderBarImages.class);
+      images[0] = defaultImages.vslider();
+      images[1] = defaultImages.vsliderSliding();
+    }
+
+    // Create the line at a known offset, which onResize moves it from
+    lineElement = cloneLineElement();
+    lineOffset = 0;
+    setStyleAttribute(lineElement, "top", "0px");
     DOM.appendChild(getElement(), lineElement);
-    DOM.setStyleAttribute(lineElement, "position", "absolute");
-    DOM.setElementProperty(lineElement, "className", styleBaseName + "-line");
 
     // Create the knob
-    this.images[0].applyTo(knobImage);
+    images[0].applyTo(knobImage);
     Element knobElement = knobImage.getElement();
     DOM.appendChild(getElement(), knobElement);
-    DOM.setStyleAttribute(knobElement, "position", "absolute");
+    setStyleAttribute(knobElement, "position", "absolute");
     DOM.setElementProperty(knobElement, "className", styleBaseName + "-knob");
-
-    // Make this a resizable widget
-    ResizableWidgetCollection.get().add(this);
   }
 
   /**
@@ -209,17 +242,17 @@ public class VSliderBar extends SliderBar {
         if (!slidingKeyboard) {
           int multiplier = 1;
           if (DOM.eventGetCtrlKey(event)) {
-            multiplier = (int) (getTotalRange() / stepSize / 10);
+            multiplier = model.getPageSteps();
           }
 
           switch (DOM.eventGetKeyCode(event)) {
             case KeyboardListener.KEY_HOME:
               DOM.eventPreventDefault(event);
-              setCurrentValue(minValue);
+              setCurrentValue(model.getMinValue());
               break;
             case KeyboardListener.KEY_END:
               DOM.eventPreventDefault(event);
-              setCurrentValue(maxValue);
+              setCurrentValue(model.getMaxValue());
               break;
             case KeyboardListener.KEY_UP:
               DOM.eventPreventDefault(event);
@@ -237,7 +270,7 @@ public class VSliderBar extends SliderBar {
               break;
             case 32:
               DOM.eventPreventDefault(event);
-              setCurrentValue(minValue + getTotalRange() / 2);
+              setCurrentValue(model.getMiddleValue());
               break;
           }
         }
@@ -256,6 +289,7 @@ public class VSliderBar extends SliderBar {
         setFocus(true);
         slidingMouse = true;
         DOM.setCapture(getElement());
+        captureGeometry();
         startSliding(true, true);
         DOM.eventPreventDefault(event);
         slideKnob(event);
@@ -270,7 +304,7 @@ public class VSliderBar extends SliderBar {
         break;
       case Event.ONMOUSEMOVE:
         if (slidingMouse) {
-          slideKnob(event);
+          dragKnob(DOM.eventGetClientY(event));
         }
         break;
     }
@@ -284,15 +318,18 @@ public class VSliderBar extends SliderBar {
    * @param height the new client height of the element
    */
   public void onResize(int width, int height) {
-    // Center the line in the shell
-    int lineHeight = DOM.getElementPropertyInt(lineElement, "offsetHeight");
-    lineOffset = (height / 2) - (lineHeight / 2);
-    DOM.setStyleAttribute(lineElement, "top", lineOffset + "px");
+    // Measure before moving the line, so that a resize causes a single layout
+    measureGeometry();
+
+    // Center the line in the shell, moving its start by as much
+    int newLineOffset = (height / 2) - (lineLength / 2);
+    lineStart += newLineOffset - lineOffset;
+    lineOffset = newLineOffset;
+    setStyleAttribute(lineElement, "top", lineOffset + "px");
+    geometryValid = true;
 
     // Draw the other components
-    drawLabels();
-    drawTicks();
-    drawKnob();
+    drawParts(DRAW_ALL);
   }
 
    /**
@@ -301,7 +338,7 @@ public class VSliderBar extends SliderBar {
    * @param numSteps the number of steps to shift
    */
   public void shiftTop(int numSteps) {
-    setCurrentValue(getCurrentValue() - numSteps * stepSize);
+    shiftSteps(-numSteps);
   }
 
   /**
@@ -310,7 +347,7 @@ public class VSliderBar extends SliderBar {
    * @param numSteps the number of steps to shift
    */
   public void shiftBottom(int numSteps) {
-    setCurrentValue(getCurrentValue() + numSteps * stepSize);
+    shiftSteps(numSteps);
   }
 
   /**
@@ -323,17 +360,16 @@ public class VSliderBar extends SliderBar {
     }
 
     // Move the knob to the correct position
-    Element knobElement = knobImage.getElement();
-    int lineHeight = DOM.getElementPropertyInt(lineElement, "offsetHeight");
-    int knobHeight = DOM.getElementPropertyInt(knobElement, "offsetHeight");
-    int knobTopOffset = (int) (lineOffset + (getKnobPercent() * lineHeight) - (knobHeight / 2));
-    knobTopOffset = Math.min(knobTopOffset, lineOffset + lineHeight
-        - (knobHeight / 2) - 1);
-    DOM.setStyleAttribute(knobElement, "top", knobTopOffset + "px");
+    ensureGeometry();
+    positionKnob(model.getKnobOffset(lineOffset, lineLength, knobLength));
   }
 
   /**
-   * Draw the labels along the line.
+   * Draw the labels along the line. The text of a label is only set when it
+   * changes. Label heights are taken from the shared {@link LabelExtentCache};
+   * the labels whose text is not in the cache are measured together in a
+   * single pass, so that a redraw causes at most one layout, and none when all
+   * the texts were measured before.
    */
   protected void drawLabels() {
     // Abort if not attached
@@ -342,56 +378,76 @@ public class VSliderBar extends SliderBar {
     }
 
     // Draw the labels
-    int lineHeight = DOM.getElementPropertyInt(lineElement, "offsetHeight");
+    ensureGeometry();
+    int numLabels = model.getNumLabels();
+    int stride = getLabelStride();
+    int numShown = numLabels / stride;
     if (numLabels > 0) {
-      // Create the labels or make them visible
-      for (int i = 0; i <= numLabels; i++) {
-        Element label = null;
-        if (i < labelElements.size()) {
-          label = (Element) labelElements.get(i);
-        } else { // Create the new label
-          label = DOM.createDiv();
-          DOM.setStyleAttribute(label, "position", "absolute");
-          DOM.setStyleAttribute(label, "display", "none");
-          DOM.setElementProperty(label, "className", styleBaseName + "-label");
-          DOM.appendChild(getElement(), label);
-          labelElements.add(label);
+      // Create the labels or make them visible, and set their text
+      LabelExtentCache extentCache = LabelExtentCache.get();
+      String[] texts = new String[numShown + 1];
+      int[] labelHeights = new int[numShown + 1];
+      boolean measure = false;
+      if (labelElements.size() <= numShown) {
+        appendLabelElements(numShown + 1 - labelElements.size());
+      }
+      for (int i = 0; i <= numShown; i++) {
+        Element label = (Element) labelElements.get(i);
+
+        // Set the label text if it changed
+        texts[i] = formatLabel(model.getLabelValue(i * stride));
+        if (!texts[i].equals(labelTexts.get(i))) {
+          DOM.setElementProperty(label, "innerHTML", texts[i]);
+          labelTexts.set(i, texts[i]);
+        }
+        setStyleAttribute(label, "display", "");
+
+        // Look up the label height
+        labelHeights[i] = extentCache.getExtent(styleBaseName, true, texts[i]);
+        if (labelHeights[i] < 0) {
+          // Move to the top so the label height is not clipped by the shell
+          setStyleAttribute(label, "visibility", "hidden");
+          setStyleAttribute(label, "top", "0px");
+          measure = true;
+        }
+      }
+
+      // Measure the labels that are not in the cache at once
+      if (measure) {
+        for (int i = 0; i <= numShown; i++) {
+          if (labelHeights[i] < 0) {
+            labelHeights[i] = getElementPropertyInt(
+                (Element) labelElements.get(i), "offsetHeight");
+            extentCache.putExtent(styleBaseName, true, texts[i],
+                labelHeights[i]);
+          }
         }
+      }
 
-        // Set the label text
-        double value = minValue + (getTotalRange() * i / numLabels);
-        DOM.setStyleAttribute(label, "visibility", "hidden");
-        DOM.setStyleAttribute(label, "display", "");
-        DOM.setElementProperty(label, "innerHTML", formatLabel(value));
-
-        // Move to the left so the label width is not clipped by the shell
-        DOM.setStyleAttribute(label, "top", "0px");
-
-        // Position the label and make it visible
-        int labelHeight = DOM.getElementPropertyInt(label, "offsetHeight");
-        int labelTopOffset = lineOffset + (lineHeight * i / numLabels)
-            - (labelHeight / 2);
-        labelTopOffset = Math.min(labelTopOffset, lineOffset + lineHeight
-            - labelHeight);
-        labelTopOffset = Math.max(labelTopOffset, lineOffset);
-        DOM.setStyleAttribute(label, "top", labelTopOffset + "px");
-        DOM.setStyleAttribute(label, "visibility", "visible");
+      // Position the labels and make them visible
+      for (int i = 0; i <= numShown; i++) {
+        Element label = (Element) labelElements.get(i);
+        int labelTopOffset = model.getLabelOffset(i * stride, lineOffset,
+            lineLength, labelHeights[i]);
+        setStyleAttribute(label, "top", labelTopOffset + "px");
+        setStyleAttribute(label, "visibility", "visible");
       }
 
       // Hide unused labels
-      for (int i = (numLabels + 1); i < labelElements.size(); i++) {
-        DOM.setStyleAttribute((Element) labelElements.get(i), "display", "none");
+      for (int i = (numShown + 1); i < labelElements.size(); i++) {
+        setStyleAttribute((Element) labelElements.get(i), "display", "none");
       }
     } else { // Hide all labels
       Iterator it = labelElements.iterator();
       while (it.hasNext()) {
-        DOM.setStyleAttribute((Element) it.next(), "display", "none");
+        setStyleAttribute((Element) it.next(), "display", "none");
       }
     }
   }
 
   /**
-   * Draw the tick along the line.
+   * Draw the tick along the line. As with the labels, all the ticks are shown
+   * first, then measured in a single pass, then positioned.
    */
   protected void drawTicks() {
     // Abort if not attached
@@ -399,60 +455,90 @@ public class VSliderBar extends SliderBar {
       return;
     }
 
-    // Draw the ticks
-    int lineHeight = DOM.getElementPropertyInt(lineElement, "offsetHeight");
-    if (numTicks > 0) {
+    // Draw the ticks, as elements or as a gradient
+    ensureGeometry();
+    int numTicks = model.getNumTicks();
+    int stride = getTickStride();
+    int numShown = numTicks / stride;
+    drawTickStrip((tickRendering == TICKS_GRADIENT) ? numTicks : 0);
+    if ((numTicks > 0) && (tickRendering == TICKS_ELEMENTS)) {
       // Create the ticks or make them visible
-      for (int i = 0; i <= numTicks; i++) {
-        Element tick = null;
-        if (i < tickElements.size()) {
-          tick = (Element) tickElements.get(i);
-        } else { // Create the new tick
-          tick = DOM.createDiv();
-          DOM.setStyleAttribute(tick, "position", "absolute");
-          DOM.setStyleAttribute(tick, "display", "none");
-          DOM.setElementProperty(tick, "className", styleBaseName + "-tick");
-          DOM.appendChild(getElement(), tick);
-          tickElements.add(tick);
-        }
+      if (tickElements.size() <= numShown) {
+        appendTickElements(numShown + 1 - tickElements.size());
+      }
+      for (int i = 0; i <= numShown; i++) {
+        Element tick = (Element) tickElements.get(i);
+        setStyleAttribute(tick, "visibility", "hidden");
+        setStyleAttribute(tick, "display", "");
+      }
+
+      // Measure all the ticks at once
+      int[] tickHeights = new int[numShown + 1];
+      for (int i = 0; i <= numShown; i++) {
+        tickHeights[i] = getElementPropertyInt(
+            (Element) tickElements.get(i), "offsetHeight");
+      }
 
-        // Position the tick and make it visible
-        DOM.setStyleAttribute(tick, "visibility", "hidden");
-        DOM.setStyleAttribute(tick, "display", "");
-        int tickHeight = DOM.getElementPropertyInt(tick, "offsetHeight");
-        int tickTopOffset = lineOffset + (lineHeight * i / numTicks)
-            - (tickHeight / 2);
-        tickTopOffset = Math.min(tickTopOffset, lineOffset + lineHeight
-            - tickHeight);
-        DOM.setStyleAttribute(tick, "top", tickTopOffset + "px");
-        DOM.setStyleAttribute(tick, "visibility", "visible");
+      // Position the ticks and make them visible
+      for (int i = 0; i <= numShown; i++) {
+        Element tick = (Element) tickElements.get(i);
+        int tickHeight = tickHeights[i];
+        int tickTopOffset = model.getTickOffset(i * stride, lineOffset,
+            lineLength, tickHeight);
+        setStyleAttribute(tick, "top", tickTopOffset + "px");
+        setStyleAttribute(tick, "visibility", "visible");
       }
 
       // Hide unused ticks
-      for (int i = (numTicks + 1); i < tickElements.size(); i++) {
-        DOM.setStyleAttribute((Element) tickElements.get(i), "display", "none");
+      for (int i = (numShown + 1); i < tickElements.size(); i++) {
+        setStyleAttribute((Element) tickElements.get(i), "display", "none");
       }
     } else { // Hide all ticks
       Iterator it = tickElements.iterator();
       while (it.hasNext()) {
-        DOM.setStyleAttribute((Element) it.next(), "display", "none");
+        setStyleAttribute((Element) it.next(), "display", "none");
       }
     }
   }
 
+  /**
+   * Check whether the knob of this slider bar moves vertically.
+   * 
+   * @return true
+   */
+  protected boolean isVertical() {
+    return true;
+  }
+
+  /**
+   * Read the dimensions of the line and knob and the position of the line.
+   */
+  protected void measureGeometry() {
+    lineLength = getElementPropertyInt(lineElement, "offsetHeight");
+    knobLength = getElementPropertyInt(knobImage.getElement(),
+        "offsetHeight");
+    lineStart = getAbsoluteTop2(lineElement);
+  }
+
   /**
    * Slide the knob to a new location.
    * 
    * @param event the mouse event
    */
   private void slideKnob(Event event) {
-    int y = DOM.eventGetClientY(event);
+    cancelDragFrame();
+    slideKnob(DOM.eventGetClientY(event));
+  }
+
+  /**
+   * Slide the knob to the value under a pointer position.
+   * 
+   * @param y the client y coordinate of the pointer
+   */
+  protected void slideKnob(int y) {
     if (y > 0) {
-      int lineHeight = DOM.getElementPropertyInt(lineElement, "offsetHeight");
-      int lineTop = getAbsoluteTop2(lineElement);
-      //int lineTop = DOM.getAbsoluteTop(lineElement);
-      double percent = (double) (y - lineTop) / lineHeight * 1.0;
-      setCurrentValue(getTotalRange() * percent + minValue, true);
+      double percent = (double) (y - lineStart) / lineLength * 1.0;
+      setCurrentValue(model.getValueAt(percent), true);
     }
   }
   
@@ -485,8 +571,8 @@ public class VSliderBar extends SliderBar {
     	styleBaseName + "-knob " + styleBaseName + "-knob-sliding");
       images[1].applyTo(knobImage);
     }
-    if (fireEvent && (sliderListeners != null)) {
-      sliderListeners.fireStartSliding(this);
+    if (fireEvent) {
+      fireStartSliding();
     }
   }
 
@@ -504,8 +590,8 @@ public class VSliderBar extends SliderBar {
     		  styleBaseName + "-knob");
       images[0].applyTo(knobImage);
     }
-    if (fireEvent && (sliderListeners != null)) {
-      sliderListeners.fireStopSliding(this);
+    if (fireEvent) {
+      fireStopSliding();
     }
   }
 }
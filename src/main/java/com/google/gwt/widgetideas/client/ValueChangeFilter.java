@@ -0,0 +1,71 @@
+package com.google.gwt.widgetideas.client;
+
+/**
+ * Describes which value changes are delivered to a listener added with
+ * {@link SourcesSliderEvents#addSliderListener(SliderListener, ValueChangeFilter)}.
+ * 
+ * The filter only applies while the slider is sliding. A change that is
+ * filtered out is not lost: if the value differs from the last value delivered
+ * when sliding stops, the settled value is delivered just before
+ * {@link SliderListener#onStopSliding(SliderBar)}. Changes made while the
+ * slider is not sliding are settled values and are always delivered.
+ */
+public class ValueChangeFilter {
+  /**
+   * The minimum difference from the last delivered value.
+   */
+  private final double minDelta;
+
+  /**
+   * The minimum delay between two deliveries in milliseconds.
+   */
+  private final int minInterval;
+
+  /**
+   * Whether only settled values are delivered.
+   */
+  private final boolean settledOnly;
+
+  /**
+   * Constructor.
+   * 
+   * @param minDelta the minimum difference between a new value and the last
+   *          delivered value, or 0 to deliver all changes
+   * @param minInterval the minimum delay between two deliveries in
+   *          milliseconds, or 0 for no delay
+   * @param settledOnly true to deliver no values at all while sliding
+   */
+  public ValueChangeFilter(double minDelta, int minInterval, boolean settledOnly) {
+    this.minDelta = minDelta;
+    this.minInterval = minInterval;
+    this.settledOnly = settledOnly;
+  }
+
+  /**
+   * Return the minimum difference between a new value and the last delivered
+   * value.
+   * 
+   * @return the minimum delta
+   */
+  public double getMinDelta() {
+    return minDelta;
+  }
+
+  /**
+   * Return the minimum delay between two deliveries in milliseconds.
+   * 
+   * @return the minimum interval
+   */
+  public int getMinInterval() {
+    return minInterval;
+  }
+
+  /**
+   * Check whether only settled values are delivered.
+   * 
+   * @return true if no values are delivered while sliding
+   */
+  public boolean isSettledOnly() {
+    return settledOnly;
+  }
+}
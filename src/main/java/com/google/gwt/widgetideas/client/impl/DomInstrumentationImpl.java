@@ -0,0 +1,18 @@
+package com.google.gwt.widgetideas.client.impl;
+
+/**
+ * Decides whether the DOM operations of slider bars are counted. This
+ * implementation is the default, in which counting is disabled and compiled
+ * out, since the compiler inlines {@link #isEnabled()} and removes the code it
+ * guards.
+ */
+public class DomInstrumentationImpl {
+  /**
+   * Check whether DOM operations are counted.
+   * 
+   * @return true if DOM operations are counted
+   */
+  public boolean isEnabled() {
+    return false;
+  }
+}
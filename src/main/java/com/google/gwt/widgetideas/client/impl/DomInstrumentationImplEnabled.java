@@ -0,0 +1,12 @@
+package com.google.gwt.widgetideas.client.impl;
+
+/**
+ * Enables the counting of the DOM operations of slider bars. This
+ * implementation is selected by setting the slider.instrumentation property to
+ * enabled.
+ */
+public class DomInstrumentationImplEnabled extends DomInstrumentationImpl {
+  public boolean isEnabled() {
+    return true;
+  }
+}
@@ -0,0 +1,40 @@
+package com.google.gwt.widgetideas.client.impl;
+
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+
+/**
+ * Positions the knob of a slider bar when transform positioning is requested.
+ * This implementation is the fallback for browsers without CSS 3D transforms
+ * and simply writes the left or top style attribute.
+ */
+public class KnobPositionImpl {
+  /**
+   * Prepare the knob to be positioned by this implementation.
+   * 
+   * @param knob the knob element
+   * @param vertical true if the knob moves vertically
+   */
+  public void enable(Element knob, boolean vertical) {
+  }
+
+  /**
+   * Undo the changes made by {@link #enable(Element, boolean)}.
+   * 
+   * @param knob the knob element
+   * @param vertical true if the knob moves vertically
+   */
+  public void disable(Element knob, boolean vertical) {
+  }
+
+  /**
+   * Move the knob to a position along the line.
+   * 
+   * @param knob the knob element
+   * @param offset the offset of the knob from the edge of the shell in pixels
+   * @param vertical true if the knob moves vertically
+   */
+  public void setPosition(Element knob, int offset, boolean vertical) {
+    DOM.setStyleAttribute(knob, vertical ? "top" : "left", offset + "px");
+  }
+}
@@ -0,0 +1,31 @@
+package com.google.gwt.widgetideas.client.impl;
+
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+
+/**
+ * Positions the knob with a CSS 3D translation, so that moving the knob only
+ * requires compositing and does not invalidate the layout of the shell.
+ */
+public class KnobPositionImplTransform extends KnobPositionImpl {
+  public void enable(Element knob, boolean vertical) {
+    // Translate relative to the edge of the shell
+    DOM.setStyleAttribute(knob, vertical ? "top" : "left", "0px");
+    DOM.setStyleAttribute(knob, "willChange", "transform");
+  }
+
+  public void disable(Element knob, boolean vertical) {
+    DOM.setStyleAttribute(knob, "transform", "");
+    DOM.setStyleAttribute(knob, "willChange", "");
+  }
+
+  public void setPosition(Element knob, int offset, boolean vertical) {
+    if (vertical) {
+      DOM.setStyleAttribute(knob, "transform", "translate3d(0," + offset
+          + "px,0)");
+    } else {
+      DOM.setStyleAttribute(knob, "transform", "translate3d(" + offset
+          + "px,0,0)");
+    }
+  }
+}
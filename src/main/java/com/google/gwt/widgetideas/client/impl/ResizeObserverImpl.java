@@ -0,0 +1,54 @@
+package com.google.gwt.widgetideas.client.impl;
+
+import com.google.gwt.user.client.Element;
+
+/**
+ * Notifies a callback when observed elements are resized. This
+ * implementation is the fallback for browsers that cannot observe resizes,
+ * in which case the resizes have to be detected by polling.
+ */
+public class ResizeObserverImpl {
+  /**
+   * The callback notified when an observed element is resized.
+   */
+  public interface ResizeCallback {
+    /**
+     * Called when an observed element is resized.
+     * 
+     * @param element the resized element
+     */
+    void onElementResized(Element element);
+  }
+
+  /**
+   * Start observing resizes on behalf of a callback.
+   * 
+   * @param callback the callback to notify
+   * @return true if resizes can be observed, false if they must be polled
+   */
+  public boolean connect(ResizeCallback callback) {
+    return false;
+  }
+
+  /**
+   * Stop observing all elements.
+   */
+  public void disconnect() {
+  }
+
+  /**
+   * Start observing the resizes of an element.
+   * 
+   * @param element the element to observe
+   */
+  public void observe(Element element) {
+  }
+
+  /**
+   * Stop observing the resizes of an element.
+   * 
+   * @param element the element to stop observing
+   */
+  public void unobserve(Element element) {
+  }
+}
@@ -0,0 +1,64 @@
+package com.google.gwt.widgetideas.client.impl;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.user.client.Element;
+
+/**
+ * Observes element resizes with the browser's ResizeObserver, when it is
+ * available at runtime.
+ */
+public class ResizeObserverImplStandard extends ResizeObserverImpl {
+  private static native JavaScriptObject createObserver(ResizeCallback callback) /*-{
+    if (!$wnd.ResizeObserver) {
+      return null;
+    }
+    return new $wnd.ResizeObserver($entry(function(entries) {
+      for (var i = 0; i < entries.length; i++) {
+        callback.@com.google.gwt.widgetideas.client.impl.ResizeObserverImpl.ResizeCallback::onElementResized(Lcom/google/gwt/user/client/Element;)(entries[i].target);
+      }
+    }));
+  }-*/;
+
+  /**
+   * The native ResizeObserver, or null if not connected.
+   */
+  private JavaScriptObject observer;
+
+  public boolean connect(ResizeCallback callback) {
+    if (observer == null) {
+      observer = createObserver(callback);
+    }
+    return observer != null;
+  }
+
+  public void disconnect() {
+    if (observer != null) {
+      disconnect(observer);
+      observer = null;
+    }
+  }
+
+  public void observe(Element element) {
+    if (observer != null) {
+      observe(observer, element);
+    }
+  }
+
+  public void unobserve(Element element) {
+    if (observer != null) {
+      unobserve(observer, element);
+    }
+  }
+
+  private native void disconnect(JavaScriptObject observer) /*-{
+    observer.disconnect();
+  }-*/;
+
+  private native void observe(JavaScriptObject observer, Element element) /*-{
+    observer.observe(element);
+  }-*/;
+
+  private native void unobserve(JavaScriptObject observer, Element element) /*-{
+    observer.unobserve(element);
+  }-*/;
+}
@@ -0,0 +1,70 @@
+package com.google.gwt.widgetideas.client.impl;
+
+import com.google.gwt.user.client.Element;
+
+/**
+ * Notifies a callback when the document is hidden or shown, and when observed
+ * elements enter or leave the viewport. This implementation is the fallback
+ * for browsers that support neither, in which case the document and all the
+ * elements are always considered visible.
+ */
+public class VisibilityObserverImpl {
+  /**
+   * The callback notified of visibility changes.
+   */
+  public interface VisibilityCallback {
+    /**
+     * Called when the document is hidden or shown.
+     * 
+     * @param hidden true if the document is now hidden
+     */
+    void onDocumentVisibilityChanged(boolean hidden);
+
+    /**
+     * Called when an observed element enters or leaves the viewport.
+     * 
+     * @param element the observed element
+     * @param visible true if the element is now in the viewport
+     */
+    void onElementVisibilityChanged(Element element, boolean visible);
+  }
+
+  /**
+   * Start observing visibility changes on behalf of a callback.
+   * 
+   * @param callback the callback to notify
+   */
+  public void connect(VisibilityCallback callback) {
+  }
+
+  /**
+   * Stop observing visibility changes.
+   */
+  public void disconnect() {
+  }
+
+  /**
+   * Check whether the document is currently hidden.
+   * 
+   * @return true if the document is hidden
+   */
+  public boolean isDocumentHidden() {
+    return false;
+  }
+
+  /**
+   * Start observing whether an element is in the viewport.
+   * 
+   * @param element the element to observe
+   */
+  public void observe(Element element) {
+  }
+
+  /**
+   * Stop observing whether an element is in the viewport.
+   * 
+   * @param element the element to stop observing
+   */
+  public void unobserve(Element element) {
+  }
+}
@@ -0,0 +1,92 @@
+package com.google.gwt.widgetideas.client.impl;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.user.client.Element;
+
+/**
+ * Observes the document with the Page Visibility API and the elements with the
+ * browser's IntersectionObserver, when it is available at runtime.
+ */
+public class VisibilityObserverImplStandard extends VisibilityObserverImpl {
+  private static native JavaScriptObject addVisibilityListener(
+      VisibilityCallback callback) /*-{
+    var listener = $entry(function() {
+      callback.@com.google.gwt.widgetideas.client.impl.VisibilityObserverImpl.VisibilityCallback::onDocumentVisibilityChanged(Z)(!!$doc.hidden);
+    });
+    $doc.addEventListener('visibilitychange', listener, false);
+    return listener;
+  }-*/;
+
+  private static native JavaScriptObject createIntersectionObserver(
+      VisibilityCallback callback) /*-{
+    if (!$wnd.IntersectionObserver) {
+      return null;
+    }
+    return new $wnd.IntersectionObserver($entry(function(entries) {
+      for (var i = 0; i < entries.length; i++) {
+        callback.@com.google.gwt.widgetideas.client.impl.VisibilityObserverImpl.VisibilityCallback::onElementVisibilityChanged(Lcom/google/gwt/user/client/Element;Z)(entries[i].target, entries[i].isIntersecting);
+      }
+    }));
+  }-*/;
+
+  /**
+   * The native IntersectionObserver, or null if not connected or not
+   * supported.
+   */
+  private JavaScriptObject intersectionObserver;
+
+  /**
+   * The visibilitychange listener, or null if not connected.
+   */
+  private JavaScriptObject visibilityListener;
+
+  public void connect(VisibilityCallback callback) {
+    if (visibilityListener == null) {
+      visibilityListener = addVisibilityListener(callback);
+      intersectionObserver = createIntersectionObserver(callback);
+    }
+  }
+
+  public void disconnect() {
+    if (visibilityListener != null) {
+      removeVisibilityListener(visibilityListener);
+      visibilityListener = null;
+    }
+    if (intersectionObserver != null) {
+      disconnect(intersectionObserver);
+      intersectionObserver = null;
+    }
+  }
+
+  public native boolean isDocumentHidden() /*-{
+    return !!$doc.hidden;
+  }-*/;
+
+  public void observe(Element element) {
+    if (intersectionObserver != null) {
+      observe(intersectionObserver, element);
+    }
+  }
+
+  public void unobserve(Element element) {
+    if (intersectionObserver != null) {
+      unobserve(intersectionObserver, element);
+    }
+  }
+
+  private native void disconnect(JavaScriptObject observer) /*-{
+    observer.disconnect();
+  }-*/;
+
+  private native void observe(JavaScriptObject observer, Element element) /*-{
+    observer.observe(element);
+  }-*/;
+
+  private native void removeVisibilityListener(JavaScriptObject listener) /*-{
+    $doc.removeEventListener('visibilitychange', listener, false);
+  }-*/;
+
+  private native void unobserve(JavaScriptObject observer, Element element) /*-{
+    observer.unobserve(element);
+  }-*/;
+}
@@ -0,0 +1,41 @@
+package com.google.gwt.widgetideas.client;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link LabelExtentCache} on a plain JVM.
+ */
+public class LabelExtentCacheTest extends TestCase {
+  public void testEvictsLeastRecentlyUsed() {
+    LabelExtentCache cache = new LabelExtentCache();
+    cache.setMaxSize(2);
+    cache.putExtent("slider", false, "a", 10);
+    cache.putExtent("slider", false, "b", 20);
+    assertEquals(10, cache.getExtent("slider", false, "a"));
+    cache.putExtent("slider", false, "c", 30);
+    assertEquals(2, cache.size());
+    assertEquals(10, cache.getExtent("slider", false, "a"));
+    assertEquals(-1, cache.getExtent("slider", false, "b"));
+    assertEquals(30, cache.getExtent("slider", false, "c"));
+  }
+
+  public void testKeysByStyleAndOrientation() {
+    LabelExtentCache cache = new LabelExtentCache();
+    cache.putExtent("slider", false, "a", 10);
+    cache.putExtent("slider", true, "a", 12);
+    cache.putExtent("other", false, "a", 14);
+    assertEquals(10, cache.getExtent("slider", false, "a"));
+    assertEquals(12, cache.getExtent("slider", true, "a"));
+    assertEquals(14, cache.getExtent("other", false, "a"));
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  public void testIgnoresUnrenderedExtents() {
+    LabelExtentCache cache = new LabelExtentCache();
+    cache.putExtent("slider", false, "a", 0);
+    cache.putExtent("slider", true, "a", -1);
+    assertEquals(0, cache.size());
+    assertEquals(-1, cache.getExtent("slider", false, "a"));
+  }
+}
@@ -0,0 +1,35 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+/**
+ * Tests the prefixes and separators chosen by {@link SILabelFormatter}.
+ */
+public class SILabelFormatterGwtTest extends GWTTestCase {
+  public String getModuleName() {
+    return "com.google.gwt.widgetideas.UserTest";
+  }
+
+  public void testPrefixes() {
+    SILabelFormatter formatter = new SILabelFormatter("Hz", 1);
+    assertEquals("0 Hz", formatter.format(0));
+    assertEquals("1.5 kHz", formatter.format(1500));
+    assertEquals("20 mHz", formatter.format(0.02));
+    assertEquals("-2.5 MHz", formatter.format(-2500000));
+  }
+
+  public void testPrefixIsChosenAfterRounding() {
+    SILabelFormatter formatter = new SILabelFormatter("Hz", 1);
+    assertEquals("1 kHz", formatter.format(999.95));
+    assertEquals("-1 kHz", formatter.format(-999.96));
+    assertEquals("999.9 Hz", formatter.format(999.9));
+    assertEquals("1 Hz", formatter.format(0.99996));
+  }
+
+  public void testEmptyUnit() {
+    SILabelFormatter formatter = new SILabelFormatter("", 0);
+    assertEquals("12", formatter.format(12));
+    assertEquals("1 k", formatter.format(999.5));
+    assertEquals("3 M", formatter.format(3000000));
+  }
+}
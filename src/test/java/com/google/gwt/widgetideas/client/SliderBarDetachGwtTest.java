@@ -0,0 +1,116 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.RootPanel;
+
+/**
+ * Tests that detached slider bars are released by the
+ * {@link ResizableWidgetCollection} and end any slide in progress.
+ */
+public class SliderBarDetachGwtTest extends GWTTestCase {
+  /**
+   * A listener counting the events it receives.
+   */
+  private static class CountingListener extends SliderListenerAdapter {
+    private int numStarts = 0;
+
+    private int numStops = 0;
+
+    private int numValueChanges = 0;
+
+    public void onStartSliding(SliderBar slider) {
+      numStarts++;
+    }
+
+    public void onStopSliding(SliderBar slider) {
+      numStops++;
+    }
+
+    public void onValueChanged(SliderBar slider, double curValue) {
+      numValueChanges++;
+    }
+  }
+
+  /**
+   * The number of attach and detach cycles.
+   */
+  private static final int NUM_CYCLES = 1000;
+
+  public String getModuleName() {
+    return "com.google.gwt.widgetideas.UserTest";
+  }
+
+  public void testAttachDetachCyclesLeaveCollectionEmpty() {
+    ResizableWidgetCollection collection = ResizableWidgetCollection.get();
+    int initialSize = collection.size();
+    for (int i = 0; i < NUM_CYCLES; i++) {
+      SliderBar slider = ((i % 2) == 0) ? (SliderBar) new HSliderBar(0, 100)
+          : (SliderBar) new VSliderBar(0, 100);
+      RootPanel.get().add(slider);
+      assertTrue(collection.contains(slider));
+      RootPanel.get().remove(slider);
+      assertFalse(collection.contains(slider));
+    }
+    assertEquals(initialSize, collection.size());
+    if (initialSize == 0) {
+      assertFalse(collection.isResizeCheckingRunning());
+    }
+  }
+
+  public void testDetachWhileSlidingStopsSliding() {
+    HSliderBar slider = new HSliderBar(0, 100);
+    CountingListener listener = new CountingListener();
+    slider.addSliderListener(listener);
+    RootPanel.get().add(slider);
+    slider.onBrowserEvent((Event) Document.get().createMouseDownEvent(0, 10,
+        10, 10, 10, false, false, false, false, Event.BUTTON_LEFT).cast());
+    assertEquals(1, listener.numStarts);
+    assertTrue(DOM.getElementProperty(slider.lineElement, "className").indexOf(
+        "-sliding") >= 0);
+
+    RootPanel.get().remove(slider);
+    assertEquals(1, listener.numStops);
+    assertTrue(DOM.getElementProperty(slider.lineElement, "className").indexOf(
+        "-sliding") < 0);
+  }
+
+  public void testSharedModelOnlyNotifiesAttachedSliders() {
+    SliderModel model = new SliderModel(0, 100);
+    model.setStepSize(1);
+    HSliderBar attached = new HSliderBar(0, 100);
+    HSliderBar detached = new HSliderBar(0, 100);
+    attached.setModel(model);
+    detached.setModel(model);
+    CountingListener attachedListener = new CountingListener();
+    CountingListener detachedListener = new CountingListener();
+    attached.addSliderListener(attachedListener);
+    detached.addSliderListener(detachedListener);
+
+    RootPanel.get().add(attached);
+    RootPanel.get().add(detached);
+    model.setCurrentValue(10, true);
+    assertEquals(1, attachedListener.numValueChanges);
+    assertEquals(1, detachedListener.numValueChanges);
+
+    // The model no longer references the detached slider
+    RootPanel.get().remove(detached);
+    model.setCurrentValue(20, true);
+    assertEquals(2, attachedListener.numValueChanges);
+    assertEquals(1, detachedListener.numValueChanges);
+
+    // Changes made through a detached slider are still reported by it
+    detached.setCurrentValue(30);
+    assertEquals(3, attachedListener.numValueChanges);
+    assertEquals(2, detachedListener.numValueChanges);
+    assertEquals(30.0, attached.getCurrentValue(), 0);
+    RootPanel.get().remove(attached);
+  }
+
+  public void testUnusedSliderIsNotRegistered() {
+    HSliderBar slider = new HSliderBar(0, 100);
+    assertFalse(ResizableWidgetCollection.get().contains(slider));
+  }
+}
@@ -0,0 +1,105 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.RootPanel;
+
+/**
+ * Tests that a redraw of a slider bar measures each label and tick at most
+ * once, and does not measure the labels whose extent is already cached, nor
+ * cache the extents measured while hidden.
+ */
+public class SliderBarLayoutReadsGwtTest extends GWTTestCase {
+  /**
+   * The slider bar under test.
+   */
+  private HSliderBar slider;
+
+  public String getModuleName() {
+    return "com.google.gwt.widgetideas.UserTest";
+  }
+
+  public void testCachedLabelsAreNotMeasured() {
+    int baseReads = countRedrawReads();
+    slider.setNumLabels(10);
+    LabelExtentCache.get().clear();
+    assertEquals(baseReads + 11, countRedrawReads());
+    assertEquals(baseReads, countRedrawReads());
+  }
+
+  public void testHiddenLabelsAreMeasuredAgain() {
+    slider.setNumLabels(10);
+    LabelExtentCache.get().clear();
+    slider.setVisible(false);
+    slider.redraw();
+    assertEquals(0, LabelExtentCache.get().size());
+
+    slider.setVisible(true);
+    int baseReads = countRedrawReads() - 11;
+    assertEquals(11, LabelExtentCache.get().size());
+    assertEquals(baseReads, countRedrawReads());
+  }
+
+  public void testGradientTicksAreNotMeasured() {
+    int baseReads = countRedrawReads();
+    slider.setTickRendering(SliderBar.TICKS_GRADIENT);
+    slider.setNumTicks(20);
+    assertEquals(baseReads, countRedrawReads());
+  }
+
+  public void testResizeMovesLineStart() {
+    assertLineStartMeasured(slider);
+    slider.setWidth("300px");
+    slider.redraw();
+    assertLineStartMeasured(slider);
+
+    VSliderBar vertical = new VSliderBar(0, 100);
+    vertical.setHeight("300px");
+    RootPanel.get().add(vertical);
+    assertLineStartMeasured(vertical);
+    vertical.setHeight("200px");
+    vertical.redraw();
+    assertLineStartMeasured(vertical);
+    RootPanel.get().remove(vertical);
+  }
+
+  public void testTicksAreMeasuredOncePerRedraw() {
+    int baseReads = countRedrawReads();
+    slider.setNumTicks(20);
+    assertEquals(baseReads + 21, countRedrawReads());
+    slider.setNumTicks(50);
+    assertEquals(baseReads + 51, countRedrawReads());
+  }
+
+  protected void gwtSetUp() {
+    slider = new HSliderBar(0, 100);
+    slider.setWidth("400px");
+    RootPanel.get().add(slider);
+  }
+
+  protected void gwtTearDown() {
+    RootPanel.get().remove(slider);
+  }
+
+  /**
+   * Check that the line start kept by a slider bar is where the line is.
+   * 
+   * @param bar the slider bar
+   */
+  private void assertLineStartMeasured(SliderBar bar) {
+    int lineStart = bar.lineStart;
+    bar.measureGeometry();
+    assertEquals(bar.lineStart, lineStart);
+  }
+
+  /**
+   * Redraw the slider bar and count the layout properties read.
+   * 
+   * @return the number of properties read
+   */
+  private int countRedrawReads() {
+    DomCounters counters = slider.getDomCounters();
+    counters.reset();
+    slider.redraw();
+    return counters.getPropertyReads();
+  }
+}
@@ -0,0 +1,22 @@
+package com.google.gwt.widgetideas.client;
+
+import junit.framework.Test;
+
+import com.google.gwt.junit.tools.GWTTestSuite;
+
+/**
+ * The browser tests of the sliders, run together so that the test module is
+ * compiled once.
+ */
+public class SliderGwtTestSuite extends GWTTestSuite {
+  public static Test suite() {
+    GWTTestSuite suite = new GWTTestSuite("Browser tests of the sliders");
+    suite.addTestSuite(SliderBarDetachGwtTest.class);
+    suite.addTestSuite(SliderBarLayoutReadsGwtTest.class);
+    suite.addTestSuite(SliderListGwtTest.class);
+    suite.addTestSuite(SliderPanelGwtTest.class);
+    suite.addTestSuite(SliderTemplateGwtTest.class);
+    suite.addTestSuite(SILabelFormatterGwtTest.class);
+    return suite;
+  }
+}
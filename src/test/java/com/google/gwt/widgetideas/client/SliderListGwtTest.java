@@ -0,0 +1,140 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.AbsolutePanel;
+import com.google.gwt.user.client.ui.RootPanel;
+
+/**
+ * Tests that a {@link SliderList} keeps its values consistent with its slider
+ * bars.
+ */
+public class SliderListGwtTest extends GWTTestCase {
+  /**
+   * A listener counting the value changes it receives.
+   */
+  private static class CountingListener implements SliderList.ValueListener {
+    private int numChanges = 0;
+
+    public void onValueChanged(SliderList list, int index, double curValue) {
+      numChanges++;
+    }
+  }
+
+  /**
+   * The height of a row in pixels.
+   */
+  private static final int ROW_HEIGHT = 20;
+
+  /**
+   * The list under test.
+   */
+  private SliderList list;
+
+  public String getModuleName() {
+    return "com.google.gwt.widgetideas.UserTest";
+  }
+
+  public void testSetRangeConfinesValues() {
+    list.setValues(new double[] {10, 50, 90});
+    CountingListener listener = new CountingListener();
+    list.addValueListener(listener);
+    list.setMinValue(20);
+    list.setMaxValue(80);
+    assertEquals(0, listener.numChanges);
+    assertEquals(20.0, list.getValue(0), 0);
+    assertEquals(50.0, list.getValue(1), 0);
+    assertEquals(80.0, list.getValue(2), 0);
+    assertEquals(20.0, getRowSlider(0).getMinValue(), 0);
+    assertEquals(80.0, getRowSlider(0).getMaxValue(), 0);
+    assertEquals(20.0, getRowSlider(0).getCurrentValue(), 0);
+  }
+
+  public void testSetValuesKeepsValuesWithoutStep() {
+    assertEquals(0.0, list.getStepSize(), 0);
+    double[] newValues = new double[list.getValueCount()];
+    for (int i = 0; i < newValues.length; i++) {
+      newValues[i] = i * 0.987;
+    }
+    list.setValues(newValues);
+    for (int i = 0; i < newValues.length; i++) {
+      assertEquals(newValues[i], list.getValue(i), 0);
+    }
+    assertEquals(newValues[1], getRowSlider(1).getCurrentValue(), 0);
+  }
+
+  public void testSetStepSizeQuantizesAllValues() {
+    double[] newValues = new double[list.getValueCount()];
+    for (int i = 0; i < newValues.length; i++) {
+      newValues[i] = i + 0.4;
+    }
+    list.setStepSize(1);
+    list.setValues(newValues);
+    CountingListener listener = new CountingListener();
+    list.addValueListener(listener);
+
+    list.setStepSize(5);
+    assertEquals(0, listener.numChanges);
+    for (int i = 0; i < list.getValueCount(); i++) {
+      assertEquals(5.0 * Math.round(i / 5.0), list.getValue(i), 0);
+    }
+    assertEquals(list.getValue(0), getRowSlider(0).getCurrentValue(), 0);
+  }
+
+  public void testSetValueQuantizes() {
+    list.setStepSize(10);
+    list.setValue(3, 14);
+    assertEquals(10.0, list.getValue(3), 0);
+    list.setValue(3, 16);
+    assertEquals(20.0, list.getValue(3), 0);
+    list.setValue(3, 250);
+    assertEquals(100.0, list.getValue(3), 0);
+    list.setValues(new double[] {-5, 44, 46});
+    assertEquals(0.0, list.getValue(0), 0);
+    assertEquals(40.0, list.getValue(1), 0);
+    assertEquals(50.0, list.getValue(2), 0);
+  }
+
+  public void testSlidingRowIsNotRebound() {
+    HSliderBar slider = getRowSlider(0);
+    slider.onBrowserEvent((Event) Document.get().createMouseDownEvent(0, 10,
+        10, 10, 10, false, false, false, false, Event.BUTTON_LEFT).cast());
+    double slideValue = slider.getCurrentValue();
+    assertEquals(slideValue, list.getValue(0), 0);
+
+    // Rebinding the rows, as scrolling does, skips the row being slid
+    double[] newValues = new double[list.getValueCount()];
+    for (int i = 0; i < newValues.length; i++) {
+      newValues[i] = 70;
+    }
+    list.setValues(newValues);
+    assertEquals(slideValue, slider.getCurrentValue(), 0);
+    assertEquals(70.0, getRowSlider(1).getCurrentValue(), 0);
+
+    // The row is bound again when the slide ends
+    slider.onBrowserEvent((Event) Document.get().createMouseUpEvent(0, 10, 10,
+        10, 10, false, false, false, false, Event.BUTTON_LEFT).cast());
+    assertEquals(list.getValue(0), slider.getCurrentValue(), 0);
+  }
+
+  protected void gwtSetUp() {
+    list = new SliderList(100, 0, 100, ROW_HEIGHT);
+    list.setSize("400px", (5 * ROW_HEIGHT) + "px");
+    RootPanel.get().add(list);
+  }
+
+  protected void gwtTearDown() {
+    RootPanel.get().remove(list);
+  }
+
+  /**
+   * Get the slider bar of a row.
+   * 
+   * @param index the index of the row in the pool
+   * @return the slider bar
+   */
+  private HSliderBar getRowSlider(int index) {
+    return (HSliderBar) ((AbsolutePanel) list.getWidget()).getWidget(index);
+  }
+}
@@ -0,0 +1,79 @@
+package com.google.gwt.widgetideas.client;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the list contract of {@link SliderListenerCollection} and that
+ * listeners may be changed while an event is dispatched.
+ */
+public class SliderListenerCollectionTest extends TestCase {
+  /**
+   * A listener counting the value changes it receives.
+   */
+  private static class CountingListener extends SliderListenerAdapter {
+    private int numChanges = 0;
+
+    public void onValueChanged(SliderBar slider, double curValue) {
+      numChanges++;
+    }
+  }
+
+  public void testAddRemoveDuringDispatch() {
+    final SliderListenerCollection collection = new SliderListenerCollection();
+    final CountingListener late = new CountingListener();
+    CountingListener self = new CountingListener() {
+      public void onValueChanged(SliderBar slider, double curValue) {
+        super.onValueChanged(slider, curValue);
+        collection.remove(this);
+        collection.add(late);
+      }
+    };
+    collection.add(self);
+    collection.fireValueChanged(null, 1);
+    assertEquals(1, self.numChanges);
+    assertEquals(0, late.numChanges);
+    collection.fireValueChanged(null, 2);
+    assertEquals(1, self.numChanges);
+    assertEquals(1, late.numChanges);
+  }
+
+  public void testListContract() {
+    SliderListenerCollection collection = new SliderListenerCollection();
+    CountingListener first = new CountingListener();
+    CountingListener second = new CountingListener();
+    CountingListener filtered = new CountingListener();
+    assertTrue(collection.add((Object) first));
+    collection.add(filtered, new ValueChangeFilter(1, 0, false));
+    collection.add(1, second);
+    assertEquals(3, collection.size());
+    assertSame(first, collection.get(0));
+    assertSame(second, collection.get(1));
+    assertSame(filtered, collection.get(2));
+    assertTrue(collection.contains(filtered));
+    assertEquals(2, collection.indexOf(filtered));
+
+    Iterator it = collection.iterator();
+    assertSame(first, it.next());
+    assertSame(second, it.next());
+    assertSame(filtered, it.next());
+    assertFalse(it.hasNext());
+
+    assertTrue(collection.remove((Object) filtered));
+    assertSame(second, collection.remove(1));
+    assertEquals(1, collection.size());
+    collection.clear();
+    assertTrue(collection.isEmpty());
+  }
+
+  public void testIndexOutOfBounds() {
+    SliderListenerCollection collection = new SliderListenerCollection();
+    try {
+      collection.get(0);
+      fail("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package com.google.gwt.widgetideas.client;
+
+import java.math.BigDecimal;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link SliderModel} on a plain JVM.
+ */
+public class SliderModelTest extends TestCase {
+  /**
+   * Check that every step of a model has the value nearest to its decimal
+   * value.
+   * 
+   * @param min the minimum value, in decimal
+   * @param step the step size, in decimal
+   * @param numSteps the number of steps in the range
+   */
+  private static void assertExactSteps(String min, String step, int numSteps) {
+    BigDecimal minDecimal = new BigDecimal(min);
+    BigDecimal stepDecimal = new BigDecimal(step);
+    SliderModel model = new SliderModel(minDecimal.doubleValue(),
+        minDecimal.add(stepDecimal.multiply(BigDecimal.valueOf(numSteps))).doubleValue());
+    model.setStepSize(stepDecimal.doubleValue());
+    for (int i = 0; i <= numSteps; i++) {
+      model.setStepIndex(i, false);
+      double expected = minDecimal.add(
+          stepDecimal.multiply(BigDecimal.valueOf(i))).doubleValue();
+      assertEquals("step " + i, expected, model.getCurrentValue(), 0);
+    }
+  }
+
+  public void testDecimalStepsAreExact() {
+    assertExactSteps("0", "0.1", 1000);
+    assertExactSteps("0", "0.3", 1000);
+    assertExactSteps("0.1", "0.7", 1000);
+    assertExactSteps("-5", "0.05", 200);
+    assertExactSteps("0", "0.001", 100000);
+  }
+
+  public void testChangeListeners() {
+    SliderModel model = new SliderModel(0, 100);
+    final int[] changes = new int[1];
+    final boolean[] fired = new boolean[1];
+    SliderModel.ChangeListener listener = new SliderModel.ChangeListener() {
+      public void onModelChanged(SliderModel source, int changed,
+          boolean fireEvent) {
+        changes[0] |= changed;
+        fired[0] = fireEvent;
+      }
+    };
+    model.addChangeListener(listener);
+    model.setCurrentValue(10, false);
+    assertEquals(SliderModel.VALUE, changes[0]);
+    assertFalse(fired[0]);
+
+    changes[0] = 0;
+    model.setStepSize(5);
+    assertEquals(SliderModel.RANGE | SliderModel.VALUE, changes[0]);
+    assertTrue(fired[0]);
+
+    changes[0] = 0;
+    model.setNumLabels(4);
+    model.setNumTicks(10);
+    assertEquals(SliderModel.LABELS | SliderModel.TICKS, changes[0]);
+    assertFalse(fired[0]);
+
+    changes[0] = 0;
+    model.removeChangeListener(listener);
+    model.setCurrentValue(20, true);
+    assertEquals(0, changes[0]);
+  }
+
+  public void testKnobPosition() {
+    SliderModel model = new SliderModel(0, 100);
+    model.setStepSize(1);
+    model.setCurrentValue(25, false);
+    assertEquals(0.25, model.getKnobPercent(), 0);
+    assertEquals(50, model.getKnobOffset(10, 200, 20));
+
+    // The knob is kept from overflowing the end of the line
+    model.setCurrentValue(100, false);
+    assertEquals(1.0, model.getKnobPercent(), 0);
+    assertEquals(199, model.getKnobOffset(10, 200, 20));
+
+    // An empty range puts the knob at the start
+    model.setMaxValue(0);
+    assertEquals(0.0, model.getKnobPercent(), 0);
+  }
+
+  public void testMarkOffsets() {
+    assertEquals(0, SliderModel.getMarkOffset(0, 10, 5, 100, 10));
+    assertEquals(50, SliderModel.getMarkOffset(5, 10, 5, 100, 10));
+    assertEquals(95, SliderModel.getMarkOffset(10, 10, 5, 100, 10));
+
+    SliderModel model = new SliderModel(0, 100);
+    model.setNumLabels(10);
+    model.setNumTicks(4);
+
+    // Labels are also kept from overflowing the start of the line
+    assertEquals(5, model.getLabelOffset(0, 5, 100, 10));
+    assertEquals(95, model.getLabelOffset(10, 5, 100, 10));
+    assertEquals(0, model.getTickOffset(0, 5, 100, 10));
+    assertEquals(49, model.getTickOffset(2, 0, 100, 2));
+    assertEquals(30.0, model.getLabelValue(3), 0);
+  }
+
+  public void testMarkStride() {
+    assertEquals(1, SliderModel.getMarkStride(100, 400, 0));
+    assertEquals(1, SliderModel.getMarkStride(0, 400, 20));
+    assertEquals(1, SliderModel.getMarkStride(10, 400, 20));
+    assertEquals(2, SliderModel.getMarkStride(100, 1000, 15));
+    assertEquals(5, SliderModel.getMarkStride(100, 400, 20));
+    assertEquals(10, SliderModel.getMarkStride(1000, 1000, 8));
+    assertEquals(20, SliderModel.getMarkStride(1000, 1000, 15));
+
+    // The stride never exceeds the number of divisions
+    assertEquals(10, SliderModel.getMarkStride(10, 50, 100));
+    assertEquals(3, SliderModel.getMarkStride(3, 30, 100));
+  }
+
+  public void testQuantize() {
+    SliderModel model = new SliderModel(0, 100);
+    model.setStepSize(5);
+    model.setCurrentValue(12.4, false);
+    assertEquals(10.0, model.getCurrentValue(), 0);
+    assertEquals(2, model.getStepIndex());
+    model.setCurrentValue(12.6, false);
+    assertEquals(15.0, model.getCurrentValue(), 0);
+
+    // Values are confined to the range
+    model.setCurrentValue(-3, false);
+    assertEquals(0.0, model.getCurrentValue(), 0);
+    model.setCurrentValue(200, false);
+    assertEquals(100.0, model.getCurrentValue(), 0);
+    assertEquals(20, model.getStepIndex());
+
+    // Narrowing the range confines the current value
+    model.setMaxValue(50);
+    assertEquals(50.0, model.getCurrentValue(), 0);
+
+    // Without a step size, values are only confined to the range
+    model.setStepSize(0);
+    model.setCurrentValue(33.3, false);
+    assertEquals(33.3, model.getCurrentValue(), 0);
+    model.setCurrentValue(60, false);
+    assertEquals(50.0, model.getCurrentValue(), 0);
+  }
+
+  public void testStepIndex() {
+    SliderModel model = new SliderModel(0, 10);
+    model.setStepSize(3);
+
+    // The last step is the last one within the range
+    model.setCurrentValue(10, false);
+    assertEquals(3, model.getStepIndex());
+    assertEquals(9.0, model.getCurrentValue(), 0);
+    model.setStepIndex(100, false);
+    assertEquals(3, model.getStepIndex());
+    model.setStepIndex(-1, false);
+    assertEquals(0, model.getStepIndex());
+    assertEquals(0.0, model.getCurrentValue(), 0);
+    model.shiftSteps(2, false);
+    assertEquals(6.0, model.getCurrentValue(), 0);
+
+    // Without a step size, steps have no effect
+    model.setStepSize(0);
+    model.setCurrentValue(4.5, false);
+    model.setStepIndex(1, false);
+    assertEquals(4.5, model.getCurrentValue(), 0);
+  }
+
+  public void testValueAt() {
+    SliderModel model = new SliderModel(-50, 50);
+    assertEquals(-50.0, model.getValueAt(0), 0);
+    assertEquals(0.0, model.getValueAt(0.5), 0);
+    assertEquals(50.0, model.getValueAt(1), 0);
+    assertEquals(0.0, model.getMiddleValue(), 0);
+  }
+
+  public void testNonDecimalStep() {
+    SliderModel model = new SliderModel(0, 1);
+    model.setStepSize(1.0 / 3);
+    model.setStepIndex(2, false);
+    assertEquals(2.0 / 3, model.getCurrentValue(), 1e-15);
+    model.setStepIndex(5, false);
+    assertEquals(3, model.getStepIndex());
+  }
+
+  public void testShiftStepsDoesNotDrift() {
+    SliderModel model = new SliderModel(0, 100);
+    model.setStepSize(0.3);
+    for (int i = 0; i < 3; i++) {
+      model.shiftSteps(1, false);
+    }
+    assertEquals(0.9, model.getCurrentValue(), 0);
+  }
+}
@@ -0,0 +1,132 @@
+package com.google.gwt.widgetideas.client;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.RootPanel;
+
+/**
+ * Tests that a {@link SliderPanel} finds the slider under the mouse.
+ */
+public class SliderPanelGwtTest extends GWTTestCase {
+  /**
+   * The panel under test.
+   */
+  private SliderPanel panel;
+
+  public String getModuleName() {
+    return "com.google.gwt.widgetideas.UserTest";
+  }
+
+  public void testClickedSliderIsActive() {
+    for (int i = 0; i < 3; i++) {
+      panel.addSlider(0, 100);
+    }
+    for (int i = 2; i >= 0; i--) {
+      clickSlider(i);
+      assertEquals(i, panel.getActiveIndex());
+    }
+  }
+
+  public void testDetachedPanelIsNotReferencedByModels() {
+    SliderModel model = new SliderModel(0, 100);
+    SliderPanel detached = new SliderPanel(true);
+    detached.addSlider(model);
+    detached.addSlider(model);
+    assertEquals(0, model.getChangeListenerCount());
+
+    // The views of an attached panel listen to their models
+    panel.addSlider(model);
+    RootPanel.get().add(detached);
+    assertEquals(3, model.getChangeListenerCount());
+    RootPanel.get().remove(detached);
+    assertEquals(1, model.getChangeListenerCount());
+
+    // Removing a slider from an attached panel unregisters its view
+    assertTrue(panel.removeSlider(model));
+    assertEquals(0, model.getChangeListenerCount());
+    assertTrue(detached.removeSlider(model));
+    assertEquals(0, model.getChangeListenerCount());
+  }
+
+  public void testOtherChildrenAreSkipped() {
+    // Some browsers focus a panel through a hidden input, its first child
+    Element input = DOM.createInputText();
+    DOM.insertChild(panel.getElement(), input, 0);
+    for (int i = 0; i < 3; i++) {
+      panel.addSlider(0, 100);
+    }
+    for (int i = 2; i >= 0; i--) {
+      clickSlider(i);
+      assertEquals(i, panel.getActiveIndex());
+    }
+    dispatchMouse(input, true);
+    dispatchMouse(input, false);
+    assertEquals(0, panel.getActiveIndex());
+  }
+
+  public void testRemovedSliderIsNotFound() {
+    SliderModel first = panel.addSlider(0, 100);
+    panel.addSlider(0, 100);
+    Element removed = getSliderElement(0);
+    panel.removeSlider(first);
+    assertEquals(1, panel.getSliderCount());
+    clickSlider(0);
+    assertEquals(0, panel.getActiveIndex());
+    panel.setActiveIndex(-1);
+    DOM.appendChild(panel.getElement(), removed);
+    dispatchMouse(removed, true);
+    dispatchMouse(removed, false);
+    assertEquals(-1, panel.getActiveIndex());
+  }
+
+  protected void gwtSetUp() {
+    panel = new SliderPanel(false);
+    panel.setWidth("400px");
+    RootPanel.get().add(panel);
+  }
+
+  protected void gwtTearDown() {
+    RootPanel.get().remove(panel);
+  }
+
+  /**
+   * Press and release the mouse on the line of a slider.
+   * 
+   * @param index the index of the slider
+   */
+  private void clickSlider(int index) {
+    Element line = DOM.getFirstChild(getSliderElement(index));
+    dispatchMouse(line, true);
+    dispatchMouse(line, false);
+  }
+
+  /**
+   * Dispatch a mouse event with the left button.
+   * 
+   * @param target the target of the event
+   * @param down true for a mouse down event, false for a mouse up event
+   */
+  private void dispatchMouse(Element target, boolean down) {
+    Document doc = Document.get();
+    target.dispatchEvent(down ? doc.createMouseDownEvent(0, 10, 10, 10, 10,
+        false, false, false, false, Event.BUTTON_LEFT)
+        : doc.createMouseUpEvent(0, 10, 10, 10, 10, false, false, false,
+            false, Event.BUTTON_LEFT));
+  }
+
+  /**
+   * Get the element of a slider, skipping the children of the panel that are
+   * not sliders.
+   * 
+   * @param index the index of the slider
+   * @return the element of the slider
+   */
+  private Element getSliderElement(int index) {
+    Element panelElement = panel.getElement();
+    int numSkipped = DOM.getChildCount(panelElement) - panel.getSliderCount();
+    return DOM.getChild(panelElement, numSkipped + index);
+  }
+}
@@ -0,0 +1,108 @@
+package com.google.gwt.widgetideas.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.ui.RootPanel;
+
+/**
+ * Tests that {@link SliderTemplate} clones labels and ticks like the ones
+ * created and styled one at a time, in batches, from a bounded set of pools.
+ */
+public class SliderTemplateGwtTest extends GWTTestCase {
+  /**
+   * Create marks one element and one style at a time, as the slider bars did
+   * before the templates.
+   * 
+   * @param parent the element receiving the marks
+   * @param className the class name of the marks
+   * @param count the number of marks
+   * @param dest the list receiving the marks
+   */
+  private static void createMarks(Element parent, String className, int count,
+      List/* <Element> */dest) {
+    for (int i = 0; i < count; i++) {
+      Element mark = DOM.createDiv();
+      DOM.setStyleAttribute(mark, "position", "absolute");
+      DOM.setStyleAttribute(mark, "display", "none");
+      DOM.setElementProperty(mark, "className", className);
+      DOM.appendChild(parent, mark);
+      dest.add(mark);
+    }
+  }
+
+  public String getModuleName() {
+    return "com.google.gwt.widgetideas.UserTest";
+  }
+
+  public void testClonedMarksMatchCreatedMarks() {
+    SliderTemplate template = SliderTemplate.get("match-HSliderBar");
+    List/* <Element> */cloned = new ArrayList/* <Element> */();
+    List/* <Element> */created = new ArrayList/* <Element> */();
+    Element clonedParent = DOM.createDiv();
+    Element createdParent = DOM.createDiv();
+    template.appendTicks(clonedParent, 5, cloned);
+    createMarks(createdParent, "match-HSliderBar-tick", 5, created);
+    assertEquals(5, cloned.size());
+    assertEquals(5, DOM.getChildCount(clonedParent));
+    for (int i = 0; i < 5; i++) {
+      Element clone = (Element) cloned.get(i);
+      assertEquals(DOM.getChild(clonedParent, i), clone);
+      assertEquals(DOM.getElementProperty((Element) created.get(i),
+          "className"), DOM.getElementProperty(clone, "className"));
+      assertEquals("none", DOM.getStyleAttribute(clone, "display"));
+      assertEquals("absolute", DOM.getStyleAttribute(clone, "position"));
+    }
+  }
+
+  public void testSliderBarClonesMarksInBatches() {
+    HSliderBar slider = new HSliderBar(0, 100);
+    slider.setWidth("400px");
+    slider.setNumLabels(10);
+    slider.setNumTicks(10);
+    RootPanel.get().add(slider);
+    slider.redraw();
+
+    // Adding marks clones one batch of labels and one of ticks
+    DomCounters counters = slider.getDomCounters();
+    counters.reset();
+    slider.setNumLabels(40);
+    slider.setNumTicks(40);
+    slider.redraw();
+    assertEquals(2, counters.getTemplateClones());
+    assertEquals(60, counters.getElementsCreated());
+
+    // Marks are reused when there are fewer of them
+    counters.reset();
+    slider.setNumLabels(20);
+    slider.setNumTicks(20);
+    slider.redraw();
+    assertEquals(0, counters.getTemplateClones());
+    assertEquals(0, counters.getElementsCreated());
+    RootPanel.get().remove(slider);
+  }
+
+  public void testPoolsAreBounded() {
+    SliderTemplate template = SliderTemplate.get("bounded-HSliderBar");
+    List/* <Element> */marks = new ArrayList/* <Element> */();
+    int numMarks = 0;
+    for (int count = 1; count <= 50; count++) {
+      template.appendLabels(DOM.createDiv(), count, marks);
+      template.appendTicks(DOM.createDiv(), count, marks);
+      numMarks += 2 * count;
+    }
+    assertEquals(numMarks, marks.size());
+    assertEquals(2 * SliderTemplate.MAX_POOLS, template.getPoolCount());
+
+    // Large pools are not kept, and their elements are still appended
+    Element parent = DOM.createDiv();
+    marks.clear();
+    template.appendTicks(parent, SliderTemplate.MAX_POOL_SIZE + 1, marks);
+    assertEquals(SliderTemplate.MAX_POOL_SIZE + 1, DOM.getChildCount(parent));
+    assertEquals(SliderTemplate.MAX_POOL_SIZE + 1, marks.size());
+    assertEquals(2 * SliderTemplate.MAX_POOLS, template.getPoolCount());
+  }
+}